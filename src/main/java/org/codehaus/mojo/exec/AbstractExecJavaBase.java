@@ -2,6 +2,8 @@ package org.codehaus.mojo.exec;
 
 import javax.inject.Inject;
 
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
@@ -10,16 +12,19 @@ import java.net.URLClassLoader;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -174,6 +179,14 @@ public abstract class AbstractExecJavaBase extends AbstractExecMojo {
 
     protected Properties originalSystemProperties;
 
+    // the system properties set from the systemProperties parameter
+    private Properties appliedSystemProperties = new Properties();
+
+    /**
+     * Held while an execution applies or restores its {@link #systemProperties}, not while its program runs.
+     */
+    private static final Object SYSTEM_PROPERTIES_LOCK = new Object();
+
     /**
      * Additional elements to be appended to the classpath.
      *
@@ -223,6 +236,145 @@ public abstract class AbstractExecJavaBase extends AbstractExecMojo {
     @Parameter(property = "exec.blockSystemExit", defaultValue = "false")
     protected boolean blockSystemExit;
 
+    /**
+     * Whether the program gets its own copy of the system properties, including the {@link #systemProperties}, instead
+     * of reading and modifying the ones of the Maven JVM. When active, the loaded classes have their calls to the
+     * system properties accessors of {@link System}, {@link Boolean#getBoolean(String)},
+     * {@link Integer#getInteger(String)} and {@link Long#getLong(String)} replaced by calls reading the properties of
+     * the execution. The system properties of the JVM are then never modified, so several {@code exec:java}
+     * executions can run concurrently in a parallel build without seeing the {@link #systemProperties} of each
+     * other: without it, the executions configuring {@link #systemProperties} set them in the JVM while their program
+     * runs, visible to the concurrent executions and the other plugins.
+     * <p>
+     * <b>Note:</b> the classes of the JVM, and the accesses through reflection or method references, still use the
+     * system properties of the JVM.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.isolateSystemProperties", defaultValue = "false")
+    protected boolean isolateSystemProperties;
+
+    /**
+     * In a parallel build, whether the lines the program writes to {@code System.out} and {@code System.err} are
+     * written whole and prefixed with the name of the build thread of its module, so that the output of concurrent
+     * executions is not interleaved. The threads of the program are recognized by their context classloader.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.prefixParallelOutput", defaultValue = "false")
+    protected boolean prefixParallelOutput;
+
+    /**
+     * Directory where the classes rewritten by {@link #blockSystemExit} or {@link #isolateSystemProperties} are
+     * stored, keyed by a hash of their original bytecode, so that the next executions can define them directly instead
+     * of transforming them again.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.blockSystemExitCache", defaultValue = "${project.build.directory}/exec-cache/classes")
+    protected File blockSystemExitCache;
+
+    /**
+     * Whether to index the packages of the classpath jars, so that a class or a resource is only looked up in the jars
+     * containing its package instead of probing all the jars in classpath order. This speeds up the class loading of
+     * applications with a lot of dependencies. Directories are not indexed and are always searched.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.indexClasspath", defaultValue = "false")
+    protected boolean indexClasspath;
+
+    /**
+     * Directory where the package index of each jar is persisted when {@link #indexClasspath} is enabled, keyed by the
+     * path, size and last modification time of the jar.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.classpathIndexCache", defaultValue = "${project.build.directory}/exec-cache/index")
+    protected File classpathIndexCache;
+
+    /**
+     * Whether to keep the classloader of this execution to reuse it in the next {@code exec:java} executions of the
+     * same Maven session using the same classpath and classloading configuration ({@link #classpathFilenameExclusions},
+     * {@link #forcedJvmPackages}, {@link #excludedJvmPackages}, {@link #blockSystemExit} and
+     * {@link #isolateSystemProperties}).
+     * This avoids to open the classpath jars and to load the same classes again when running the same main many times.
+     * <p>
+     * <b>Note:</b> the static state of the classes is shared between these executions. A cached classloader is not
+     * reused if one of its classpath elements was modified in the meantime.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.cacheClassLoader", defaultValue = "false")
+    protected boolean cacheClassLoader;
+
+    /**
+     * The maximum number of classloaders kept when {@link #cacheClassLoader} is enabled, the least recently used ones
+     * are closed first.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.classLoaderCacheSize", defaultValue = "4")
+    protected int classLoaderCacheSize;
+
+    /**
+     * Classes to load in the classloader of the execution before invoking the main method, in parallel on
+     * {@link #preloadParallelism} threads. Each entry is either a package ({@code org.acme} or {@code org.acme.*}),
+     * preloading all the classes of the classpath in this package and its subpackages, or the path of a class list
+     * file with one class name per line, like the ones produced by {@code -XX:DumpLoadedClassList}.
+     * The classes are loaded but not initialized, the ones which can't be loaded are ignored.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.preloadClasses")
+    protected List<String> preloadClasses;
+
+    /**
+     * The number of threads loading {@link #preloadClasses}, {@code 0} means the number of available processors.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.preloadParallelism", defaultValue = "0")
+    protected int preloadParallelism;
+
+    /**
+     * Whether to run the main method on a virtual thread instead of a platform thread, requires Java 21 or later
+     * (ignored with a warning otherwise). The execution then only waits for the main method, like with the
+     * {@code thread} {@link #isolationMode}: the threads started by a virtual thread don't belong to the thread group
+     * of the execution, so the threads started by the program, platform or virtual ones, are neither waited for nor
+     * cleaned up.
+     * <p>
+     * <b>Note:</b> for the same reason, the uncaught exceptions of the threads started by the program are only printed
+     * and don't fail the build, unlike with a platform thread where an uncaught exception of any thread of the program
+     * fails the execution. The exceptions thrown by the main method still fail it.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.virtualThreads", defaultValue = "false")
+    protected boolean virtualThreads;
+
+    /**
+     * How the main method is isolated from the build:
+     * <ul>
+     * <li>{@code full}: the main method runs on its own thread, in its own thread group; the execution waits for all
+     * the non daemon threads of the group and cleans up its daemon threads (see {@link #cleanupDaemonThreads}),</li>
+     * <li>{@code thread}: the main method runs on its own thread and the execution only waits for this thread, the
+     * threads started by the program are left alone,</li>
+     * <li>{@code none}: the main method runs on the thread of the build with only the context classloader swapped,
+     * avoiding any thread creation and tracking. Suited to short programs which don't start threads,
+     * {@link #virtualThreads} is ignored.</li>
+     * </ul>
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.isolationMode", defaultValue = "full")
+    protected String isolationMode = "full";
+
+    /**
+     * The array the threads of the execution are enumerated in, reused by the passes of the thread cleanup.
+     */
+    private Thread[] threadsBuffer;
+
     // todo: for maven4 move to Lookup instead
     protected final PlexusContainer container;
 
@@ -266,69 +418,82 @@ public abstract class AbstractExecJavaBase extends AbstractExecMojo {
             preloadCommonPool();
         }
 
+        final IsolationMode mode = getIsolationMode();
+        final boolean virtual = virtualThreads && mode != IsolationMode.NONE && VirtualThreads.isSupported();
+        if (virtualThreads && mode != IsolationMode.NONE && !virtual) {
+            getLog().warn("Virtual threads require Java 21 or later, running the main method on a platform thread");
+        }
+        List<Path> classpath = getClasspath();
+        if (isIncremental() && isUpToDate(fingerprintValues(), classpath)) {
+            registerSourceRoots();
+            return;
+        }
         IsolatedThreadGroup threadGroup = new IsolatedThreadGroup(mainClass /* name */);
-        Thread bootstrapThread = new Thread( // TODO: drop this useless thread 99% of the time
-                threadGroup,
-                () -> {
-                    int sepIndex = mainClass.indexOf('/');
-
-                    final String bootClassName;
-                    if (sepIndex >= 0) {
-                        bootClassName = mainClass.substring(sepIndex + 1);
-                    } else {
-                        bootClassName = mainClass;
-                    }
+        URLClassLoader classLoader = getClassLoader(classpath);
+        if (preloadClasses != null && !preloadClasses.isEmpty()) {
+            preloadClasses(classLoader);
+        }
+        boolean parallel = getSession() != null && getSession().isParallel();
+        try (Closeable ignored = parallel && prefixParallelOutput
+                ? OutputDispatcher.register(
+                        classLoader, "[" + Thread.currentThread().getName() + "] ")
+                : null) {
+            if (isolateSystemProperties) {
+                setIsolatedSystemProperties(classLoader);
+            } else {
+                setSystemProperties();
+            }
+            run(mode, virtual, threadGroup, classLoader);
+        } catch (IOException e) {
+            getLog().debug("Can't flush the output of the execution", e);
+        } finally {
+            restoreSystemProperties(parallel);
+        }
 
-                    try {
-                        if (sepIndex >= 0) {
-                            final String moduleName = mainClass.substring(0, sepIndex);
-                            doExecModulePath(moduleName, bootClassName);
-                        } else {
-                            doExecClassLoader(bootClassName);
-                        }
-                    } catch (IllegalAccessException | NoSuchMethodException | NoSuchMethodError e) { // just pass it on
-                        Thread.currentThread()
-                                .getThreadGroup()
-                                .uncaughtException(
-                                        Thread.currentThread(),
-                                        new Exception(
-                                                "The specified mainClass doesn't contain a main method with appropriate signature.",
-                                                e));
-                    } catch (InvocationTargetException e) {
-                        // use the cause if available to improve the plugin execution output
-                        Throwable exceptionToReport = e.getCause() != null ? e.getCause() : e;
-                        // Special handling for SystemExitException
-                        if (exceptionToReport instanceof SystemExitException) {
-                            SystemExitException systemExitException = (SystemExitException) exceptionToReport;
-                            if (systemExitException.getExitCode() != 0) {
-                                getLog().error(systemExitException.getMessage());
-                                throw systemExitException;
-                            } else {
-                                getLog().info(systemExitException.getMessage());
-                            }
-                        } else {
-                            Thread.currentThread()
-                                    .getThreadGroup()
-                                    .uncaughtException(Thread.currentThread(), exceptionToReport);
-                        }
-                    } catch (SystemExitException systemExitException) {
-                        if (systemExitException.getExitCode() != 0) {
-                            getLog().error(systemExitException.getMessage());
-                            throw systemExitException;
-                        } else {
-                            getLog().info(systemExitException.getMessage());
-                        }
-                    } catch (Throwable e) { // just pass it on
-                        Thread.currentThread().getThreadGroup().uncaughtException(Thread.currentThread(), e);
-                    }
-                },
-                mainClass + ".main()");
-        URLClassLoader classLoader = getClassLoader(); // TODO: enable to cache accross executions
-        bootstrapThread.setContextClassLoader(classLoader);
-        setSystemProperties();
-
-        bootstrapThread.start();
-        joinNonDaemonThreads(threadGroup);
+        if (classLoader != null) {
+            releaseClassLoader(classLoader);
+        }
+
+        synchronized (threadGroup) {
+            if (threadGroup.uncaughtException != null) {
+                throw new MojoExecutionException(
+                        "An exception occurred while executing the Java class. "
+                                + threadGroup.uncaughtException.getMessage(),
+                        threadGroup.uncaughtException);
+            }
+        }
+
+        recordSuccess();
+        registerSourceRoots();
+    }
+
+    /**
+     * Runs the main method and waits for the program according to the isolation mode.
+     */
+    private void run(IsolationMode mode, boolean virtual, IsolatedThreadGroup threadGroup, URLClassLoader classLoader) {
+        if (mode == IsolationMode.NONE) {
+            Thread currentThread = Thread.currentThread();
+            ClassLoader oldContextClassLoader = currentThread.getContextClassLoader();
+            try {
+                currentThread.setContextClassLoader(classLoader);
+                runMain(threadGroup);
+            } finally {
+                currentThread.setContextClassLoader(oldContextClassLoader);
+            }
+            destroyThreadGroup(threadGroup); // never had any thread
+        } else {
+            Thread bootstrapThread =
+                    newBootstrapThread(virtual, threadGroup, () -> runMain(threadGroup), mainClass + ".main()");
+            bootstrapThread.setContextClassLoader(classLoader);
+            bootstrapThread.start();
+            if (virtual || mode == IsolationMode.THREAD) { // a virtual thread is a daemon thread
+                joinThread(bootstrapThread, 0);
+            }
+            // the threads started by a virtual thread are not in the thread group, they can't be tracked
+            if (mode == IsolationMode.FULL && !virtual) {
+                joinNonDaemonThreads(threadGroup);
+            }
+        }
         // It's plausible that spontaneously a non-daemon thread might be created as we try and shut down,
         // but it's too late since the termination condition (only daemon threads) has been triggered.
         if (keepAlive) {
@@ -337,39 +502,97 @@ public abstract class AbstractExecJavaBase extends AbstractExecMojo {
             waitFor(0);
         }
 
-        if (cleanupDaemonThreads) {
+        if (cleanupDaemonThreads && mode == IsolationMode.FULL && !virtual) {
 
             terminateThreads(threadGroup);
 
-            try {
-                threadGroup.destroy();
-            } catch (RuntimeException | Error /* missing method in future java version */ e) {
-                getLog().warn("Couldn't destroy threadgroup " + threadGroup, e);
-            }
+            destroyThreadGroup(threadGroup);
         }
+    }
 
-        if (classLoader != null) {
-            try {
-                classLoader.close();
-            } catch (IOException e) {
-                getLog().error(e.getMessage(), e);
+    /**
+     * Invokes the main method, the failures being reported to the thread group of the execution: not the group of the
+     * current thread, which is not the isolated group for a virtual thread or with {@link IsolationMode#NONE}.
+     */
+    private void runMain(IsolatedThreadGroup threadGroup) {
+        int sepIndex = mainClass.indexOf('/');
+
+        final String bootClassName;
+        if (sepIndex >= 0) {
+            bootClassName = mainClass.substring(sepIndex + 1);
+        } else {
+            bootClassName = mainClass;
+        }
+
+        try {
+            if (sepIndex >= 0) {
+                final String moduleName = mainClass.substring(0, sepIndex);
+                doExecModulePath(moduleName, bootClassName);
+            } else {
+                doExecClassLoader(bootClassName);
+            }
+        } catch (IllegalAccessException | NoSuchMethodException | NoSuchMethodError e) { // just pass it on
+            threadGroup.uncaughtException(
+                    Thread.currentThread(),
+                    new Exception(
+                            "The specified mainClass doesn't contain a main method with appropriate signature.", e));
+        } catch (InvocationTargetException e) {
+            // use the cause if available to improve the plugin execution output
+            Throwable exceptionToReport = e.getCause() != null ? e.getCause() : e;
+            // Special handling for SystemExitException
+            if (exceptionToReport instanceof SystemExitException) {
+                handleSystemExit(threadGroup, (SystemExitException) exceptionToReport);
+            } else {
+                threadGroup.uncaughtException(Thread.currentThread(), exceptionToReport);
             }
+        } catch (SystemExitException systemExitException) {
+            handleSystemExit(threadGroup, systemExitException);
+        } catch (Throwable e) { // just pass it on
+            threadGroup.uncaughtException(Thread.currentThread(), e);
         }
+    }
 
-        if (originalSystemProperties != null) {
-            System.setProperties(originalSystemProperties);
+    private void handleSystemExit(IsolatedThreadGroup threadGroup, SystemExitException systemExitException) {
+        if (systemExitException.getExitCode() != 0) {
+            getLog().error(systemExitException.getMessage());
+            threadGroup.uncaughtException(Thread.currentThread(), systemExitException);
+        } else {
+            getLog().info(systemExitException.getMessage());
         }
+    }
 
-        synchronized (threadGroup) {
-            if (threadGroup.uncaughtException != null) {
-                throw new MojoExecutionException(
-                        "An exception occurred while executing the Java class. "
-                                + threadGroup.uncaughtException.getMessage(),
-                        threadGroup.uncaughtException);
-            }
+    private void destroyThreadGroup(ThreadGroup threadGroup) {
+        try {
+            threadGroup.destroy();
+        } catch (RuntimeException | Error /* missing method in future java version */ e) {
+            getLog().warn("Couldn't destroy threadgroup " + threadGroup, e);
         }
+    }
 
-        registerSourceRoots();
+    private IsolationMode getIsolationMode() throws MojoExecutionException {
+        try {
+            return IsolationMode.valueOf(isolationMode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new MojoExecutionException(
+                    "Invalid isolationMode '" + isolationMode + "', expected none, thread or full");
+        }
+    }
+
+    private List<Object> fingerprintValues() {
+        List<Object> values = new ArrayList<>();
+        values.add(mainClass);
+        values.addAll(Arrays.asList(arguments));
+        if (systemProperties != null) {
+            for (AbstractProperty systemProperty : systemProperties) {
+                if (systemProperty instanceof Property) {
+                    Property prop = (Property) systemProperty;
+                    values.add(prop.getKey() + '=' + prop.getValue());
+                } else {
+                    values.add(systemProperty.getClass().getName());
+                }
+            }
+        }
+        return values;
     }
 
     protected void doExecClassLoader(final String bootClassName) throws Throwable {
@@ -634,6 +857,30 @@ public abstract class AbstractExecJavaBase extends AbstractExecMojo {
         }
     }
 
+    /**
+     * Load the {@link #preloadClasses} in the classloader of the execution using several threads.
+     *
+     * @param classLoader the classloader of the execution
+     */
+    protected void preloadClasses(URLClassLoader classLoader) {
+        final long start = System.nanoTime();
+        final int parallelism = preloadParallelism > 0
+                ? preloadParallelism
+                : Runtime.getRuntime().availableProcessors();
+        final int loaded = ClassPreloader.preload(classLoader, preloadClasses, parallelism, getLog());
+        getLog().debug("Preloaded " + loaded + " classes in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                + "ms");
+    }
+
+    /**
+     * The values of {@link #isolationMode}.
+     */
+    enum IsolationMode {
+        NONE,
+        THREAD,
+        FULL
+    }
+
     /**
      * a ThreadGroup to isolate execution and collect exceptions.
      */
@@ -675,7 +922,9 @@ public abstract class AbstractExecJavaBase extends AbstractExecMojo {
 
     protected void joinThread(Thread thread, long timeoutMsecs) {
         try {
-            getLog().debug("joining on thread " + thread);
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("joining on thread " + thread);
+            }
             thread.join(timeoutMsecs);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // good practice if don't throw
@@ -696,8 +945,11 @@ public abstract class AbstractExecJavaBase extends AbstractExecMojo {
                 threads = getActiveThreads(threadGroup), threads.removeAll(uncooperativeThreads)) {
             // Interrupt all threads we know about as of this instant (harmless if spuriously went dead (! isAlive())
             // or if something else interrupted it ( isInterrupted() ).
+            boolean debug = getLog().isDebugEnabled(); // a message per thread is costly with large pools
             for (Thread thread : threads) {
-                getLog().debug("interrupting thread " + thread);
+                if (debug) {
+                    getLog().debug("interrupting thread " + thread);
+                }
                 thread.interrupt();
             }
             // Now join with a timeout and call stop() (assuming flags are set right)
@@ -748,15 +1000,26 @@ public abstract class AbstractExecJavaBase extends AbstractExecMojo {
     }
 
     protected Collection<Thread> getActiveThreads(ThreadGroup threadGroup) {
-        Thread[] threads = new Thread[threadGroup.activeCount()];
-        int numThreads = threadGroup.enumerate(threads);
-        Collection<Thread> result = new ArrayList<>(numThreads);
-        for (int i = 0; i < threads.length && threads[i] != null; i++) {
-            result.add(threads[i]);
+        // enumerate() silently drops the threads which don't fit, such as the ones started since activeCount():
+        // a full array may be missing some, enumerate again with more room
+        Thread[] threads = threadsBuffer;
+        if (threads == null || threads.length <= threadGroup.activeCount()) {
+            threads = new Thread[threadGroup.activeCount() * 2 + 16];
         }
+        int numThreads;
+        while ((numThreads = threadGroup.enumerate(threads)) == threads.length) {
+            threads = new Thread[threads.length * 2];
+        }
+        Collection<Thread> result = new ArrayList<>(Arrays.asList(threads).subList(0, numThreads));
+        Arrays.fill(threads, 0, numThreads, null); // don't retain the threads
+        threadsBuffer = threads;
         return result; // note: result should be modifiable
     }
 
+    private Thread newBootstrapThread(boolean virtual, ThreadGroup threadGroup, Runnable runnable, String name) {
+        return virtual ? VirtualThreads.newThread(runnable, name) : new Thread(threadGroup, runnable, name);
+    }
+
     /**
      * Pass any given system properties to the java system properties.
      */
@@ -764,12 +1027,73 @@ public abstract class AbstractExecJavaBase extends AbstractExecMojo {
         if (systemProperties == null) {
             return;
         }
-        // copy otherwise the restore phase does nothing
-        originalSystemProperties = new Properties();
-        originalSystemProperties.putAll(System.getProperties());
+        Properties applied = new Properties();
+        applySystemProperties(applied);
+        synchronized (SYSTEM_PROPERTIES_LOCK) {
+            // copy otherwise the restore phase does nothing
+            originalSystemProperties = new Properties();
+            originalSystemProperties.putAll(System.getProperties());
+            appliedSystemProperties = applied;
+            System.getProperties().putAll(applied);
+        }
+    }
+
+    /**
+     * Restores the system properties modified by {@link #setSystemProperties()}. In a parallel build, Maven and the
+     * other modules may modify the system properties while the program runs, so only the properties set from
+     * {@link #systemProperties} are restored, unless another execution changed them since then.
+     *
+     * @param parallel whether the build is parallel
+     */
+    private void restoreSystemProperties(boolean parallel) {
+        if (originalSystemProperties == null) {
+            return;
+        }
+        synchronized (SYSTEM_PROPERTIES_LOCK) {
+            if (!parallel) {
+                System.setProperties(originalSystemProperties);
+                return;
+            }
+            for (String name : appliedSystemProperties.stringPropertyNames()) {
+                if (!Objects.equals(System.getProperty(name), appliedSystemProperties.getProperty(name))) {
+                    continue; // modified by the program or another execution
+                }
+                String original = originalSystemProperties.getProperty(name);
+                if (original == null) {
+                    System.clearProperty(name);
+                } else {
+                    System.setProperty(name, original);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives the program its own copy of the system properties with the {@link #systemProperties}, the system
+     * properties of the JVM being left untouched.
+     *
+     * @param classLoader the classloader of the execution, defining its own {@link SystemPropertiesManager}
+     * @throws MojoExecutionException if the properties of the execution can't be set
+     */
+    private void setIsolatedSystemProperties(ClassLoader classLoader) throws MojoExecutionException {
+        Properties properties = new Properties();
+        properties.putAll(System.getProperties());
+        if (systemProperties != null) {
+            applySystemProperties(properties);
+        }
+        try {
+            classLoader
+                    .loadClass(SystemPropertiesManager.class.getName())
+                    .getMethod("setProperties", Properties.class)
+                    .invoke(null, properties);
+        } catch (ReflectiveOperationException e) {
+            throw new MojoExecutionException("Can't isolate the system properties of the execution", e);
+        }
+    }
 
+    private void applySystemProperties(Properties properties) {
         if (Stream.of(systemProperties).anyMatch(it -> it instanceof ProjectProperties)) {
-            System.getProperties().putAll(project.getProperties());
+            properties.putAll(project.getProperties());
         }
 
         for (AbstractProperty systemProperty : systemProperties) {
@@ -779,7 +1103,7 @@ public abstract class AbstractExecJavaBase extends AbstractExecMojo {
 
             Property prop = (Property) systemProperty;
             String value = prop.getValue();
-            System.setProperty(prop.getKey(), value == null ? "" : value);
+            properties.setProperty(prop.getKey(), value == null ? "" : value);
         }
     }
 
@@ -790,24 +1114,60 @@ public abstract class AbstractExecJavaBase extends AbstractExecMojo {
      * @throws MojoExecutionException if a problem happens
      */
     protected URLClassLoader getClassLoader() throws MojoExecutionException {
+        return getClassLoader(getClasspath());
+    }
+
+    private List<Path> getClasspath() throws MojoExecutionException {
         List<Path> classpathURLs = new ArrayList<>();
         this.addRelevantPluginDependenciesToClasspath(classpathURLs);
         this.addRelevantProjectDependenciesToClasspath(classpathURLs);
         this.addAdditionalClasspathElements(classpathURLs);
+        return classpathURLs;
+    }
+
+    private URLClassLoader getClassLoader(List<Path> classpathURLs) throws MojoExecutionException {
         try {
-            return URLClassLoaderBuilder.builder()
+            URLClassLoaderBuilder builder = URLClassLoaderBuilder.builder()
                     .setLogger(getLog())
                     .setPaths(classpathURLs)
                     .setExclusions(classpathFilenameExclusions)
                     .setForcedJvmPackages(forcedJvmPackages)
                     .setExcludedJvmPackages(excludedJvmPackages)
                     .withTransformers(blockSystemExit)
-                    .build();
+                    .withIsolatedSystemProperties(isolateSystemProperties)
+                    .setTransformedClassesCache(blockSystemExitCache == null ? null : blockSystemExitCache.toPath())
+                    .withClasspathIndex(indexClasspath)
+                    .setClasspathIndexCache(classpathIndexCache == null ? null : classpathIndexCache.toPath());
+            if (cacheClassLoader) {
+                return getClassLoaderCache().acquire(builder, classLoaderCacheSize);
+            }
+            return builder.build();
         } catch (NullPointerException | IOException e) {
             throw new MojoExecutionException(e.getMessage(), e);
         }
     }
 
+    /**
+     * Release the classloader obtained with {@link #getClassLoader()}, closing it unless it is cached.
+     *
+     * @param classLoader the classloader used by the execution
+     */
+    protected void releaseClassLoader(URLClassLoader classLoader) {
+        try {
+            if (cacheClassLoader) {
+                getClassLoaderCache().release(classLoader);
+            } else {
+                classLoader.close();
+            }
+        } catch (IOException e) {
+            getLog().error(e.getMessage(), e);
+        }
+    }
+
+    private ClassLoaderCache getClassLoaderCache() {
+        return SessionState.get(getSession(), ClassLoaderCache.class, ClassLoaderCache::new);
+    }
+
     protected void addAdditionalClasspathElements(List<Path> path) {
         if (additionalClasspathElements != null) {
             for (String classPathElement : additionalClasspathElements) {
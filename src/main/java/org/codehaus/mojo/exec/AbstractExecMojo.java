@@ -20,8 +20,11 @@ package org.codehaus.mojo.exec;
  */
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -32,8 +35,10 @@ import java.util.stream.Collectors;
 import org.apache.maven.RepositoryUtils;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.FileSet;
 import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
@@ -167,6 +172,80 @@ public abstract class AbstractExecMojo extends AbstractMojo {
     @Parameter(property = "exec.includePluginsDependencies", defaultValue = "false")
     protected boolean includePluginDependencies;
 
+    /**
+     * The files read by the execution. When set, the execution is skipped if these files, the classpath, the
+     * arguments and the configured environment didn't change since the last successful execution, and if the
+     * {@link #outputs} exist. For example:
+     *
+     * <pre>
+     * &lt;inputs&gt;
+     *   &lt;input&gt;
+     *     &lt;directory&gt;src/main/proto&lt;/directory&gt;
+     *     &lt;includes&gt;
+     *       &lt;include&gt;**&#47;*.proto&lt;/include&gt;
+     *     &lt;/includes&gt;
+     *   &lt;/input&gt;
+     * &lt;/inputs&gt;
+     * </pre>
+     *
+     * The classpath is part of the fingerprint as well: the size and modification time of its jars, the number of
+     * files and the latest modification time of its directories, like {@code target/classes}.
+     *
+     * @since 3.6.4
+     */
+    @Parameter
+    private List<FileSet> inputs;
+
+    /**
+     * The files written by the execution, each file set having to match at least one file for the execution to be
+     * skipped by {@link #inputs}.
+     *
+     * @since 3.6.4
+     */
+    @Parameter
+    private List<FileSet> outputs;
+
+    /**
+     * Directory where the fingerprints of the executions using {@link #inputs} are stored.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(
+            property = "exec.fingerprintDirectory",
+            defaultValue = "${project.build.directory}/exec-cache/fingerprints")
+    private File fingerprintDirectory;
+
+    /**
+     * A directory shared by the builds, for example {@code ${user.home}/.m2/exec-cache}, where the {@link #outputs} of
+     * the executions using {@link #inputs} are recorded. An execution whose fingerprint was already recorded restores
+     * its outputs from this directory instead of running, even after a clean build. Disabled when not set.
+     * <p>
+     * The recorded outputs are keyed by the fingerprint, the content of the directories of the classpath and the
+     * definition of the {@link #outputs}.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.buildCacheDirectory")
+    private File buildCacheDirectory;
+
+    /**
+     * The maximum size in bytes of {@link #buildCacheDirectory}, the least recently used entries being deleted
+     * beyond it.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.buildCacheMaxSize", defaultValue = "1073741824")
+    private long buildCacheMaxSize = 1024L * 1024 * 1024;
+
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+    private MojoExecution mojoExecution;
+
+    // the fingerprint of the running execution, stored once it succeeded
+    private String fingerprint;
+
+    // the key of the outputs of the running execution in the build cache, recorded once it succeeded
+    private String buildCacheKey;
+
     protected AbstractExecMojo(RepositorySystem repositorySystem) {
         this.repositorySystem = Objects.requireNonNull(repositorySystem);
     }
@@ -271,6 +350,95 @@ public abstract class AbstractExecMojo extends AbstractMojo {
         return skip;
     }
 
+    /**
+     * @return {@code true} if the execution declares {@link #inputs} and can be skipped by
+     *         {@link #isUpToDate(List, List)}
+     */
+    protected boolean isIncremental() {
+        return inputs != null && !inputs.isEmpty() && fingerprintDirectory != null;
+    }
+
+    /**
+     * Checks whether the execution can be skipped since its {@link #inputs} didn't change since the last successful
+     * one, in which case {@link #recordSuccess()} has to be called once the execution succeeded.
+     *
+     * @param values the values configuring the execution (arguments, environment...) in a stable order
+     * @param classpath the classpath of the execution
+     * @return {@code true} if the execution is up to date and can be skipped
+     */
+    protected boolean isUpToDate(List<Object> values, List<Path> classpath) {
+        if (!isIncremental()) {
+            return false;
+        }
+        File basedir = project == null ? null : project.getBasedir();
+        Path file = getFingerprintFile();
+        try {
+            List<Object> fingerprintValues = new ArrayList<>(values);
+            for (Path element : classpath) {
+                Fingerprint.addClasspathElement(fingerprintValues, element.toString());
+            }
+            String current = Fingerprint.of(basedir, inputs, fingerprintValues);
+            if ((outputs == null || Fingerprint.outputsExist(basedir, outputs)) && Fingerprint.matches(file, current)) {
+                getLog().info("Skipping execution, its inputs and outputs are up to date");
+                return true;
+            }
+            // a failing execution must not be considered as up to date
+            Files.deleteIfExists(file);
+            fingerprint = current;
+        } catch (IOException e) {
+            getLog().warn("Can't compute the fingerprint of the execution: " + e.getMessage());
+            return false;
+        }
+
+        if (isBuildCacheEnabled()) {
+            try {
+                buildCacheKey = Fingerprint.buildCacheKey(fingerprint, basedir, outputs, classpath);
+                if (BuildCache.restore(buildCacheDirectory.toPath(), buildCacheKey, basedir, outputs)) {
+                    getLog().info("Skipping execution, its outputs were restored from " + buildCacheDirectory);
+                    Fingerprint.store(file, fingerprint);
+                    return true;
+                }
+            } catch (IOException e) {
+                getLog().warn("Can't restore the outputs from " + buildCacheDirectory + ": " + e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stores the fingerprint of the execution checked by {@link #isUpToDate(List, List)} once it succeeded, and records
+     * its outputs in the {@link #buildCacheDirectory}.
+     */
+    protected void recordSuccess() {
+        if (fingerprint == null) {
+            return;
+        }
+        try {
+            Fingerprint.store(getFingerprintFile(), fingerprint);
+        } catch (IOException e) {
+            getLog().warn("Can't store the fingerprint of the execution: " + e.getMessage());
+        }
+
+        File basedir = project == null ? null : project.getBasedir();
+        if (isBuildCacheEnabled() && buildCacheKey != null && Fingerprint.outputsExist(basedir, outputs)) {
+            try {
+                BuildCache.store(buildCacheDirectory.toPath(), buildCacheKey, basedir, outputs, buildCacheMaxSize);
+            } catch (IOException e) {
+                getLog().warn("Can't record the outputs in " + buildCacheDirectory + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private boolean isBuildCacheEnabled() {
+        return buildCacheDirectory != null && outputs != null && !outputs.isEmpty();
+    }
+
+    private Path getFingerprintFile() {
+        String name =
+                mojoExecution == null ? "default" : mojoExecution.getGoal() + '-' + mojoExecution.getExecutionId();
+        return fingerprintDirectory.toPath().resolve(name.replaceAll("[^A-Za-z0-9._-]", "_"));
+    }
+
     protected final MavenSession getSession() {
         return session;
     }
@@ -0,0 +1,197 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Hands the lines of a program output over to a single thread logging them in batches, so that a slow Maven
+ * console doesn't throttle the program through the pipe of its output.
+ * <p>
+ * The lines are buffered in a bounded queue, the {@link Overflow} policy tells what happens when it is full.
+ *
+ * @since 3.6.4
+ */
+final class AsyncLineSink implements AutoCloseable {
+    private static final int BATCH_SIZE = 1024;
+
+    private static final Line END = new Line(null, null);
+
+    /**
+     * What to do with a line when the buffer is full.
+     */
+    enum Overflow {
+        /** Wait for the buffer to have room, the program is throttled as without buffer. */
+        BLOCK,
+        /** Drop the line, the number of dropped lines is logged at the end of the execution. */
+        DROP,
+        /** Write the line to a file instead of the Maven log. */
+        SPILL
+    }
+
+    private final BlockingQueue<Line> queue;
+
+    private final Overflow overflow;
+
+    private final Path spillFile;
+
+    private final Log logger;
+
+    private final Thread consumer;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private long spilled;
+
+    private Writer spillWriter;
+
+    /**
+     * @param capacity the maximum number of buffered lines
+     * @param overflow the policy when the buffer is full
+     * @param spillFile where the lines are written with {@link Overflow#SPILL}
+     * @param logger the logger of the plugin
+     */
+    AsyncLineSink(final int capacity, final Overflow overflow, final Path spillFile, final Log logger) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.overflow = Objects.requireNonNull(overflow);
+        this.spillFile = spillFile;
+        this.logger = logger;
+        this.consumer = new Thread(this::drain, "exec-log-sink");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * @param target the consumer logging a line, called from the thread of the sink
+     * @return a consumer buffering the lines for the target
+     */
+    Consumer<String> redirect(final Consumer<String> target) {
+        return text -> offer(new Line(target, text));
+    }
+
+    /**
+     * Logs the buffered lines and reports the overflowed ones.
+     */
+    @Override
+    public void close() {
+        try {
+            queue.put(END);
+            consumer.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (spillWriter != null) {
+                try {
+                    spillWriter.close();
+                } catch (final IOException e) {
+                    logger.warn("Can't close " + spillFile + ": " + e.getMessage());
+                }
+                logger.warn(spilled + " lines of the program output were written to " + spillFile
+                        + " since the log buffer was full");
+            }
+        }
+        if (dropped.get() > 0) {
+            logger.warn(dropped.get() + " lines of the program output were dropped since the log buffer was full");
+        }
+    }
+
+    private void offer(final Line line) {
+        if (queue.offer(line)) {
+            return;
+        }
+        switch (overflow) {
+            case DROP:
+                dropped.incrementAndGet();
+                break;
+            case SPILL:
+                spill(line.text);
+                break;
+            default:
+                try {
+                    queue.put(line);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    line.target.accept(line.text);
+                }
+        }
+    }
+
+    private synchronized void spill(final String text) {
+        try {
+            if (spillWriter == null) {
+                Files.createDirectories(spillFile.getParent());
+                spillWriter = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8);
+            }
+            spillWriter.write(text);
+            spillWriter.write(System.lineSeparator());
+            spilled++;
+        } catch (final IOException e) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void drain() {
+        final List<Line> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (final Line line : batch) {
+                    if (line == END) {
+                        return;
+                    }
+                    try {
+                        line.target.accept(line.text);
+                    } catch (final RuntimeException e) {
+                        // keep draining, the program must not block on a failing logger
+                    }
+                }
+                batch.clear();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Line {
+        private final Consumer<String> target;
+
+        private final String text;
+
+        private Line(final Consumer<String> target, final String text) {
+            this.target = target;
+            this.text = text;
+        }
+    }
+}
@@ -24,6 +24,9 @@ import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.IllegalClassFormatException;
 import java.net.URLClassLoader;
 import java.security.ProtectionDomain;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.maven.plugin.logging.Log;
 import org.objectweb.asm.ClassReader;
@@ -35,16 +38,70 @@ import org.objectweb.asm.commons.GeneratorAdapter;
 import static org.objectweb.asm.ClassReader.EXPAND_FRAMES;
 import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
 import static org.objectweb.asm.Opcodes.ASM9;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
 
 public class BlockExitTransformer implements ClassFileTransformer {
+    private static final int CONSTANT_METHODREF_TAG = 10;
+
+    /**
+     * Version of the transformation, to change each time the rewritten bytecode changes to invalidate
+     * the {@link TransformedClassCache}.
+     */
+    static final String VERSION = "1";
+
+    // the methods reading or writing the system properties, keyed by their owner
+    private static final Set<String> SYSTEM_PROPERTIES_METHODS = new HashSet<>(Arrays.asList(
+            "java/lang/System.getProperty",
+            "java/lang/System.setProperty",
+            "java/lang/System.clearProperty",
+            "java/lang/System.getProperties",
+            "java/lang/System.setProperties",
+            "java/lang/Boolean.getBoolean",
+            "java/lang/Integer.getInteger",
+            "java/lang/Long.getLong"));
 
     private final URLClassLoader classLoader;
 
     private final Log logger;
 
+    private final TransformedClassCache cache;
+
+    private final boolean blockSystemExit;
+
+    private final boolean isolateSystemProperties;
+
     BlockExitTransformer(URLClassLoader classLoader, Log logger) {
+        this(classLoader, logger, null);
+    }
+
+    BlockExitTransformer(URLClassLoader classLoader, Log logger, TransformedClassCache cache) {
+        this(classLoader, logger, cache, true, false);
+    }
+
+    BlockExitTransformer(
+            URLClassLoader classLoader,
+            Log logger,
+            TransformedClassCache cache,
+            boolean blockSystemExit,
+            boolean isolateSystemProperties) {
         this.classLoader = classLoader;
         this.logger = logger;
+        this.cache = cache;
+        this.blockSystemExit = blockSystemExit;
+        this.isolateSystemProperties = isolateSystemProperties;
+    }
+
+    /**
+     * @param blockSystemExit whether {@link System#exit(int)} calls are rewritten
+     * @param isolateSystemProperties whether the system properties accesses are rewritten
+     * @return the version of the transformation, for the {@link TransformedClassCache}
+     */
+    static String version(boolean blockSystemExit, boolean isolateSystemProperties) {
+        return VERSION + (blockSystemExit ? "-exit" : "") + (isolateSystemProperties ? "-properties" : "");
+    }
+
+    boolean isolatesSystemProperties() {
+        return isolateSystemProperties;
     }
 
     @Override
@@ -57,16 +114,81 @@ public class BlockExitTransformer implements ClassFileTransformer {
             throws IllegalClassFormatException {
         try {
             final ClassReader reader = new ClassReader(classfileBuffer);
-            final ClassWriter writer = createClassWriter();
-            final SystemExitOverrideVisitor visitor = new SystemExitOverrideVisitor(writer);
-            reader.accept(visitor, EXPAND_FRAMES);
-            return writer.toByteArray();
+            if (!references(reader, blockSystemExit, isolateSystemProperties)) {
+                return null;
+            }
+            if (cache == null) {
+                return rewrite(reader, createClassWriter());
+            }
+            final String key = cache.key(classfileBuffer);
+            final byte[] cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            final FramesComputingWriter writer = createClassWriter();
+            final byte[] transformed = rewrite(reader, writer);
+            // the frames merging types depend on the class hierarchy of the classpath, which is not part of the key
+            if (!writer.lookedUpHierarchy) {
+                cache.put(key, transformed);
+            }
+            return transformed;
         } catch (final RuntimeException re) { // too old asm for ex, ignore these classes to not block the rest
             logger.warn("Unable to transform class " + className + " : " + re.getMessage());
             return null;
         }
     }
 
+    private byte[] rewrite(final ClassReader reader, final ClassWriter writer) {
+        final SystemExitOverrideVisitor visitor =
+                new SystemExitOverrideVisitor(writer, blockSystemExit, isolateSystemProperties);
+        reader.accept(visitor, EXPAND_FRAMES);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Checks whether the constant pool of the class contains a {@code java/lang/System.exit} method reference.
+     * Most classes do not, they can then be defined as they are, avoiding a costly rewriting (frames computation in
+     * particular, which can also require to load other classes).
+     *
+     * @param reader the reader of the class to check
+     * @return {@code true} if the class may call {@link System#exit(int)}
+     */
+    static boolean referencesSystemExit(final ClassReader reader) {
+        return references(reader, true, false);
+    }
+
+    /**
+     * Checks whether the constant pool of the class contains a reference to a method to rewrite.
+     *
+     * @param reader the reader of the class to check
+     * @param systemExit whether to look for {@link System#exit(int)}
+     * @param systemProperties whether to look for the system properties accessors
+     * @return {@code true} if the class may call one of these methods
+     */
+    static boolean references(final ClassReader reader, final boolean systemExit, final boolean systemProperties) {
+        final char[] buffer = new char[reader.getMaxStringLength()];
+        for (int i = 1; i < reader.getItemCount(); i++) {
+            final int offset = reader.getItem(i);
+            // offset is 0 for the unusable entry following a long or a double
+            if (offset == 0 || reader.readByte(offset - 1) != CONSTANT_METHODREF_TAG) {
+                continue;
+            }
+            final String owner = reader.readClass(offset, buffer);
+            if (!owner.startsWith("java/lang/")) {
+                continue;
+            }
+            final int nameAndType = reader.getItem(reader.readUnsignedShort(offset + 2));
+            final String name = reader.readUTF8(nameAndType, buffer);
+            if (systemExit && "java/lang/System".equals(owner) && "exit".equals(name)) {
+                return true;
+            }
+            if (systemProperties && SYSTEM_PROPERTIES_METHODS.contains(owner + '.' + name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Creates a new {@link ClassWriter} that uses the dedicated  {@link ClassLoader} of this transformer.
      * <p>
@@ -75,25 +197,56 @@ public class BlockExitTransformer implements ClassFileTransformer {
      *
      * @return a new {@link ClassWriter}
      */
-    private ClassWriter createClassWriter() {
-        return new ClassWriter(COMPUTE_FRAMES) {
-            @Override
-            protected ClassLoader getClassLoader() {
-                return classLoader;
-            }
-        };
+    private FramesComputingWriter createClassWriter() {
+        return new FramesComputingWriter(classLoader);
     }
 
     public void close() throws IOException {
         classLoader.close();
     }
 
+    /**
+     * Records whether the frames computation looked up the class hierarchy, then the rewritten bytecode depends on the
+     * classpath.
+     */
+    private static final class FramesComputingWriter extends ClassWriter {
+        private final ClassLoader classLoader;
+
+        private boolean lookedUpHierarchy;
+
+        private FramesComputingWriter(final ClassLoader classLoader) {
+            super(COMPUTE_FRAMES);
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected ClassLoader getClassLoader() {
+            return classLoader;
+        }
+
+        @Override
+        protected String getCommonSuperClass(final String type1, final String type2) {
+            lookedUpHierarchy = true;
+            return super.getCommonSuperClass(type1, type2);
+        }
+    }
+
     private static class SystemExitOverrideVisitor extends ClassVisitor {
         private static final String SYSTEM_REPLACEMENT =
                 SystemExitManager.class.getName().replace('.', '/');
 
-        private SystemExitOverrideVisitor(final ClassVisitor visitor) {
+        private static final String PROPERTIES_REPLACEMENT =
+                SystemPropertiesManager.class.getName().replace('.', '/');
+
+        private final boolean blockSystemExit;
+
+        private final boolean isolateSystemProperties;
+
+        private SystemExitOverrideVisitor(
+                final ClassVisitor visitor, final boolean blockSystemExit, final boolean isolateSystemProperties) {
             super(ASM9, visitor);
+            this.blockSystemExit = blockSystemExit;
+            this.isolateSystemProperties = isolateSystemProperties;
         }
 
         @Override
@@ -116,8 +269,12 @@ public class BlockExitTransformer implements ClassFileTransformer {
                         final String name,
                         final String descriptor,
                         final boolean isInterface) {
-                    if (owner.equals("java/lang/System") && name.equals("exit")) {
+                    if (blockSystemExit && owner.equals("java/lang/System") && name.equals("exit")) {
                         mv.visitMethodInsn(opcode, SYSTEM_REPLACEMENT, name, descriptor, isInterface);
+                    } else if (isolateSystemProperties
+                            && opcode == INVOKESTATIC
+                            && SYSTEM_PROPERTIES_METHODS.contains(owner + '.' + name)) {
+                        mv.visitMethodInsn(opcode, PROPERTIES_REPLACEMENT, name, descriptor, isInterface);
                     } else {
                         super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
                     }
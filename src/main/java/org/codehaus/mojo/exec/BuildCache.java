@@ -0,0 +1,176 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.maven.model.FileSet;
+
+/**
+ * A local cache of the outputs of the executions, keyed by their {@link Fingerprint#buildCacheKey build cache key}: an
+ * execution whose key is known restores the recorded output files instead of running, even after a clean build or on
+ * another branch.
+ * <p>
+ * Each entry is a zip of the output files of an execution, the least recently used entries being evicted once the
+ * cache exceeds its maximum size.
+ *
+ * @since 3.6.4
+ */
+final class BuildCache {
+    private static final String EXTENSION = ".zip";
+
+    private BuildCache() {
+        // no-op
+    }
+
+    /**
+     * @param cache the directory of the cache
+     * @param key the build cache key of the execution
+     * @param basedir the directory the relative file sets are resolved against
+     * @param outputs the output files of the execution
+     * @return {@code true} if the outputs were restored from the cache
+     * @throws IOException if the entry can't be read or the outputs written
+     */
+    static boolean restore(final Path cache, final String key, final File basedir, final List<FileSet> outputs)
+            throws IOException {
+        final Path entry = cache.resolve(key + EXTENSION);
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(entry))) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                // entries are named <index of the file set>/<path relative to its directory>
+                final String name = zipEntry.getName();
+                final int separator = name.indexOf('/');
+                final int index = Integer.parseInt(name.substring(0, separator));
+                final Path directory = Fingerprint.directory(basedir, outputs.get(index))
+                        .toPath()
+                        .normalize();
+                final Path file =
+                        directory.resolve(name.substring(separator + 1)).normalize();
+                if (!file.startsWith(directory)) {
+                    throw new IOException("Invalid entry " + name + " in " + entry);
+                }
+                Files.createDirectories(file.getParent());
+                Files.copy(zip, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (final NoSuchFileException e) {
+            return false;
+        } catch (final RuntimeException e) {
+            throw new IOException("Invalid build cache entry " + entry, e);
+        }
+        Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        return true;
+    }
+
+    /**
+     * Records the outputs of a succeeded execution and evicts the least recently used entries beyond the maximum size.
+     *
+     * @param cache the directory of the cache
+     * @param key the build cache key of the execution
+     * @param basedir the directory the relative file sets are resolved against
+     * @param outputs the output files of the execution
+     * @param maxSize the maximum size of the cache in bytes
+     * @throws IOException if the entry can't be written
+     */
+    static void store(
+            final Path cache, final String key, final File basedir, final List<FileSet> outputs, final long maxSize)
+            throws IOException {
+        Files.createDirectories(cache);
+        final Path entry = cache.resolve(key + EXTENSION);
+        final Path tmp = Files.createTempFile(cache, key, ".tmp");
+        try {
+            try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(tmp))) {
+                for (int i = 0; i < outputs.size(); i++) {
+                    final File directory = Fingerprint.directory(basedir, outputs.get(i));
+                    for (final String file : Fingerprint.scan(directory, outputs.get(i))) {
+                        zip.putNextEntry(new ZipEntry(i + "/" + file.replace(File.separatorChar, '/')));
+                        Files.copy(directory.toPath().resolve(file), zip);
+                        zip.closeEntry();
+                    }
+                }
+            }
+            Caches.moveAtomically(tmp, entry);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        evict(cache, maxSize);
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache fits in its maximum size.
+     *
+     * @param cache the directory of the cache
+     * @param maxSize the maximum size of the cache in bytes
+     * @throws IOException if the cache can't be listed
+     */
+    static void evict(final Path cache, final long maxSize) throws IOException {
+        final List<Path> entries;
+        try (Stream<Path> list = Files.list(cache)) {
+            entries = list.filter(it -> it.getFileName().toString().endsWith(EXTENSION))
+                    .collect(Collectors.toList());
+        }
+        final List<Entry> sized = new ArrayList<>();
+        long total = 0;
+        for (final Path entry : entries) {
+            try {
+                final Entry sizedEntry = new Entry(entry, Files.size(entry), Files.getLastModifiedTime(entry));
+                sized.add(sizedEntry);
+                total += sizedEntry.size;
+            } catch (final NoSuchFileException e) {
+                // evicted by a concurrent build
+            }
+        }
+        sized.sort(Comparator.comparing(it -> it.lastAccess));
+        for (final Entry entry : sized) {
+            if (total <= maxSize) {
+                break;
+            }
+            Files.deleteIfExists(entry.path);
+            total -= entry.size;
+        }
+    }
+
+    private static final class Entry {
+        private final Path path;
+
+        private final long size;
+
+        private final FileTime lastAccess;
+
+        private Entry(final Path path, final long size, final FileTime lastAccess) {
+            this.path = path;
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Helpers for the file based caches of the plugin.
+ *
+ * @since 3.6.4
+ */
+final class Caches {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Caches() {
+        // no-op
+    }
+
+    /**
+     * @param parts the values to hash, in order
+     * @return the hexadecimal SHA-256 hash of the values
+     */
+    static String sha256(final byte[]... parts) {
+        final MessageDigest digest = newDigest();
+        for (final byte[] part : parts) {
+            digest.update(part);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @param parts the values to hash, in order, each of them being delimited
+     * @return the hexadecimal SHA-256 hash of the values
+     */
+    static String sha256(final Iterable<?> parts) {
+        final MessageDigest digest = newDigest();
+        for (final Object part : parts) {
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @param file the file to hash, read as a stream
+     * @return the hexadecimal SHA-256 hash of the content of the file
+     * @throws IOException if the file can't be read
+     */
+    static String sha256(final Path file) throws IOException {
+        final MessageDigest digest = newDigest();
+        final byte[] buffer = new byte[8192];
+        try (InputStream stream = Files.newInputStream(file)) {
+            int read;
+            while ((read = stream.read(buffer)) >= 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * A cheap stamp of files, changing when one of them changes: the size and last modification time of a file, the
+     * number of files and the greatest last modification time of a directory tree.
+     *
+     * @param paths the files or directories
+     * @return the stamp of the paths, two values per path
+     * @throws IOException if a directory can't be walked
+     */
+    static List<Object> stamp(final Iterable<Path> paths) throws IOException {
+        final List<Object> stamp = new ArrayList<>();
+        for (final Path path : paths) {
+            if (Files.isDirectory(path)) {
+                final long[] directoryStamp = new long[2];
+                try (Stream<Path> files = Files.walk(path)) {
+                    files.forEach(file -> {
+                        directoryStamp[0]++;
+                        directoryStamp[1] =
+                                Math.max(directoryStamp[1], file.toFile().lastModified());
+                    });
+                }
+                stamp.add(directoryStamp[0]);
+                stamp.add(directoryStamp[1]);
+            } else if (Files.exists(path)) {
+                final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                stamp.add(attributes.size());
+                stamp.add(attributes.lastModifiedTime().toMillis());
+            } else {
+                stamp.add(-1L);
+                stamp.add(-1L);
+            }
+        }
+        return stamp;
+    }
+
+    /**
+     * Writes the file through a temporary file, so that concurrent builds never read a partially written file.
+     *
+     * @param file the file to write
+     * @param content the content of the file
+     * @throws IOException if the file can't be written
+     */
+    static void writeAtomically(final Path file, final byte[] content) throws IOException {
+        Files.createDirectories(file.getParent());
+        final Path tmp =
+                Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, content);
+            moveAtomically(tmp, file);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Moves a fully written file to its final location of the same directory, replacing the existing one if any.
+     *
+     * @param source the written file
+     * @param target the final location
+     * @throws IOException if the file can't be moved
+     */
+    static void moveAtomically(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // SHA-256 is mandatory for all JVMs
+        }
+    }
+
+    private static String toHex(final byte[] hash) {
+        final char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
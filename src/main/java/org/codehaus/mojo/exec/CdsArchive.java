@@ -0,0 +1,172 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * A dynamic class data sharing (AppCDS) archive of a forked java execution: the first execution dumps the loaded
+ * classes at exit ({@code -XX:ArchiveClassesAtExit}), the next ones map them ({@code -XX:SharedArchiveFile}).
+ * <p>
+ * The archive is keyed by the JDK and by the classpath (including the size and last modification time of its
+ * elements) since the JVM ignores an archive created with another JDK or classpath.
+ *
+ * @since 3.6.4
+ */
+final class CdsArchive {
+    // dynamic archives are supported since JDK 13
+    private static final int MIN_JAVA_VERSION = 13;
+
+    private final Path archive;
+
+    private final Path dumpedArchive;
+
+    private final Log logger;
+
+    private CdsArchive(final Path archive, final Path dumpedArchive, final Log logger) {
+        this.archive = archive;
+        this.dumpedArchive = dumpedArchive;
+        this.logger = logger;
+    }
+
+    /**
+     * @param directory where the archives are stored
+     * @param java the java executable
+     * @param classpath the classpath elements of the execution
+     * @param create whether the archive can be created if it doesn't exist yet
+     * @param logger the logger
+     * @return the archive of the execution or {@code null} if the JDK doesn't support dynamic archives
+     */
+    static CdsArchive of(
+            final Path directory,
+            final Path java,
+            final List<String> classpath,
+            final boolean create,
+            final Log logger) {
+        try {
+            final Path realJava = java.toRealPath();
+            final Path javaHome =
+                    realJava.getParent() == null ? null : realJava.getParent().getParent();
+            final Path release = javaHome == null ? null : javaHome.resolve("release");
+            if (release == null || !Files.isRegularFile(release)) {
+                logger.debug("No release file for " + realJava + ", skipping CDS archive");
+                return null;
+            }
+            final Properties properties = new Properties();
+            try (InputStream stream = Files.newInputStream(release)) {
+                properties.load(stream);
+            }
+            final String version = unquote(properties.getProperty("JAVA_VERSION", ""));
+            if (majorVersion(version) < MIN_JAVA_VERSION) {
+                logger.debug("Java '" + version + "' of " + realJava + " doesn't support dynamic CDS archives");
+                return null;
+            }
+
+            final List<Object> key = new ArrayList<>();
+            key.add(realJava);
+            key.add(version);
+            key.add(unquote(properties.getProperty("IMPLEMENTOR", "")));
+            for (final String element : classpath) {
+                key.add(element);
+                final Path path = Paths.get(element);
+                if (Files.isRegularFile(path)) {
+                    final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    key.add(attributes.size());
+                    key.add(attributes.lastModifiedTime().toMillis());
+                }
+            }
+            final Path archive = directory.resolve(Caches.sha256(key) + ".jsa");
+            if (Files.isRegularFile(archive)) {
+                return new CdsArchive(archive, null, logger);
+            }
+            if (!create) {
+                return null;
+            }
+            Files.createDirectories(directory);
+            final Path dumped =
+                    Files.createTempFile(directory, archive.getFileName().toString(), ".tmp");
+            Files.delete(dumped); // the JVM creates it at exit
+            return new CdsArchive(archive, dumped, logger);
+        } catch (final IOException | RuntimeException e) {
+            logger.debug("Can't set up a CDS archive for " + java + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the options of the JVM to create or use the archive
+     */
+    List<String> jvmArguments() {
+        if (dumpedArchive == null) {
+            logger.debug("Using CDS archive " + archive);
+            return Collections.singletonList("-XX:SharedArchiveFile=" + archive);
+        }
+        logger.debug("Creating CDS archive " + archive);
+        return Collections.singletonList("-XX:ArchiveClassesAtExit=" + dumpedArchive);
+    }
+
+    /**
+     * To call once the execution exited: keeps the dumped archive if the execution succeeded, drops it otherwise.
+     *
+     * @param success whether the execution succeeded
+     */
+    void completed(final boolean success) {
+        if (dumpedArchive == null) {
+            return;
+        }
+        try {
+            if (success && Files.isRegularFile(dumpedArchive)) {
+                Caches.moveAtomically(dumpedArchive, archive);
+            }
+            Files.deleteIfExists(dumpedArchive);
+        } catch (final IOException e) {
+            logger.debug("Can't store CDS archive " + archive + ": " + e.getMessage());
+        }
+    }
+
+    private static String unquote(final String value) {
+        final String trimmed = value.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+
+    // "1.8.0_292" is 8, "17.0.2" is 17, "21" is 21
+    static int majorVersion(final String version) {
+        String value = version.startsWith("1.") ? version.substring(2) : version;
+        int end = 0;
+        while (end < value.length() && Character.isDigit(value.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? -1 : Integer.parseInt(value.substring(0, end));
+    }
+}
@@ -0,0 +1,162 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the classloaders built for {@code exec:java} to reuse them in later executions of the same session.
+ * <p>
+ * Classloaders are keyed by the classpath and classloading configuration of the {@link URLClassLoaderBuilder} and
+ * reference counted: a classloader evicted (least recently used first) or invalidated (because a classpath element
+ * changed) while an execution still uses it is only closed when released by this execution. A cached classloader is
+ * only used by one execution at a time, a concurrent execution gets a new uncached one.
+ * <p>
+ * Closing the cache evicts all its classloaders, the cache remaining usable.
+ *
+ * @since 3.6.4
+ */
+final class ClassLoaderCache implements Closeable {
+    private final Map<List<Object>, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<URLClassLoader, Entry> leased = new IdentityHashMap<>();
+
+    /**
+     * Get a classloader matching the builder, reusing a cached one if its classpath did not change.
+     *
+     * @param builder the builder to use if no classloader can be reused
+     * @param maxSize the maximum number of classloaders to keep
+     * @return the classloader, to give back with {@link #release(URLClassLoader)}
+     * @throws IOException if the classloader can't be created
+     */
+    synchronized URLClassLoader acquire(final URLClassLoaderBuilder builder, final int maxSize) throws IOException {
+        final List<Object> key = builder.cacheKey();
+        final List<Object> stamp = Caches.stamp(builder.getPaths());
+
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.stamp.equals(stamp)) {
+            entries.remove(key);
+            evict(entry);
+            entry = null;
+        }
+        if (entry != null && entry.references > 0) {
+            // used by a concurrent execution (parallel build): its static state and system properties are not shared,
+            // the execution gets its own classloader, closed when released
+            return builder.build();
+        }
+        if (entry == null) {
+            entry = new Entry(builder.build(), stamp);
+            entries.put(key, entry);
+            trim(maxSize);
+        }
+
+        entry.references++;
+        leased.put(entry.loader, entry);
+        return entry.loader;
+    }
+
+    /**
+     * Give back a classloader obtained with {@link #acquire(URLClassLoaderBuilder, int)}.
+     * It is closed if it is no longer cached and not used by another execution.
+     *
+     * @param loader the classloader to release
+     * @throws IOException if closing the classloader fails
+     */
+    void release(final URLClassLoader loader) throws IOException {
+        final boolean close;
+        synchronized (this) {
+            final Entry entry = leased.get(loader);
+            if (entry == null) { // not created by this cache
+                close = true;
+            } else {
+                entry.references--;
+                if (entry.references == 0) {
+                    leased.remove(loader);
+                }
+                close = entry.references == 0 && entry.evicted;
+            }
+        }
+        if (close) {
+            loader.close();
+        }
+    }
+
+    /**
+     * Closes the classloaders which are not used, the other ones being closed once released.
+     *
+     * @throws IOException if closing a classloader fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        final List<Entry> evicted = new ArrayList<>(entries.values());
+        entries.clear();
+        IOException failure = null;
+        for (final Entry entry : evicted) {
+            try {
+                evict(entry);
+            } catch (final IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void trim(final int maxSize) throws IOException {
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > Math.max(1, maxSize) && iterator.hasNext()) {
+            final Entry eldest = iterator.next();
+            iterator.remove();
+            evict(eldest);
+        }
+    }
+
+    private void evict(final Entry entry) throws IOException {
+        entry.evicted = true;
+        if (entry.references == 0) {
+            entry.loader.close();
+        }
+    }
+
+    /**
+     * Computes a cheap fingerprint of the classpath elements (size and last modification time), directories being
+     * walked since a change in a nested file does not update the directory itself.
+     */
+    private static final class Entry {
+        private final URLClassLoader loader;
+        private final List<Object> stamp;
+        private int references;
+        private boolean evicted;
+
+        private Entry(final URLClassLoader loader, final List<Object> stamp) {
+            this.loader = loader;
+            this.stamp = stamp;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Loads (without initializing them) a set of classes in a classloader using several threads, to spread the class
+ * loading cost of an application startup across the cores before its main method runs.
+ * <p>
+ * The classes are given as packages (all the classes of the classpath in this package and its subpackages) or as
+ * class list files, for example produced by {@code -XX:DumpLoadedClassList}.
+ *
+ * @since 3.6.4
+ */
+final class ClassPreloader {
+    private ClassPreloader() {
+        // no-op
+    }
+
+    /**
+     * @param loader the classloader to preload the classes into
+     * @param entries packages ({@code org.acme} or {@code org.acme.*}) or paths of class list files
+     * @param parallelism the number of threads loading classes
+     * @param logger the logger
+     * @return the number of loaded classes
+     */
+    static int preload(
+            final URLClassLoader loader, final Collection<String> entries, final int parallelism, final Log logger) {
+        final List<String> names = classNames(loader, entries, logger);
+        if (names.isEmpty()) {
+            return 0;
+        }
+
+        final AtomicInteger loaded = new AtomicInteger();
+        final ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            pool.submit(() -> names.parallelStream().forEach(name -> {
+                        try {
+                            Class.forName(name, false, loader);
+                            loaded.incrementAndGet();
+                        } catch (ClassNotFoundException | LinkageError e) {
+                            if (logger.isDebugEnabled()) {
+                                logger.debug("Can't preload " + name + ": " + e);
+                            }
+                        }
+                    }))
+                    .join();
+        } finally {
+            pool.shutdown();
+        }
+        return loaded.get();
+    }
+
+    static List<String> classNames(final URLClassLoader loader, final Collection<String> entries, final Log logger) {
+        final Set<String> names = new LinkedHashSet<>();
+        final List<String> packages = new ArrayList<>();
+        for (final String entry : entries) {
+            if (entry == null || entry.trim().isEmpty()) {
+                continue;
+            }
+            final Path file = Paths.get(entry.trim());
+            if (Files.isRegularFile(file)) {
+                readClassList(file, names, logger);
+            } else {
+                String pkg = entry.trim();
+                if (pkg.endsWith("*")) {
+                    pkg = pkg.substring(0, pkg.length() - 1);
+                }
+                if (!pkg.isEmpty() && !pkg.endsWith(".")) {
+                    pkg += '.';
+                }
+                packages.add(pkg.replace('.', '/'));
+            }
+        }
+        if (!packages.isEmpty()) {
+            for (final URL url : loader.getURLs()) {
+                scan(url, packages, names, logger);
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    // one class per line, in binary or internal form, followed by optional attributes, '#' and '@' lines are skipped
+    private static void readClassList(final Path file, final Set<String> names, final Log logger) {
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            lines.map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#") && !line.startsWith("@"))
+                    .map(line -> {
+                        final int end = line.indexOf(' ');
+                        return (end < 0 ? line : line.substring(0, end)).replace('/', '.');
+                    })
+                    .forEach(names::add);
+        } catch (IOException e) {
+            logger.warn("Can't read class list " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static void scan(final URL url, final List<String> packages, final Set<String> names, final Log logger) {
+        final Path element;
+        try {
+            element = Paths.get(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return;
+        }
+        try {
+            if (Files.isDirectory(element)) {
+                try (Stream<Path> files = Files.walk(element)) {
+                    files.filter(Files::isRegularFile)
+                            .map(f -> element.relativize(f).toString().replace('\\', '/'))
+                            .forEach(entry -> addClass(entry, packages, names));
+                }
+            } else if (Files.isRegularFile(element)) {
+                try (ZipFile zip = new ZipFile(element.toFile())) {
+                    final Enumeration<? extends ZipEntry> entries = zip.entries();
+                    while (entries.hasMoreElements()) {
+                        addClass(entries.nextElement().getName(), packages, names);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Can't scan " + element + " for classes to preload: " + e.getMessage());
+        }
+    }
+
+    private static void addClass(final String entry, final List<String> packages, final Set<String> names) {
+        if (!entry.endsWith(".class")
+                || entry.startsWith("META-INF/")
+                || entry.endsWith("module-info.class")
+                || entry.endsWith("package-info.class")) {
+            return;
+        }
+        for (final String pkg : packages) {
+            if (entry.startsWith(pkg)) {
+                names.add(entry.substring(0, entry.length() - ".class".length()).replace('/', '.'));
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+import org.apache.maven.plugin.logging.Log;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Index of the packages (resource directories) contained in the jars of a classpath, to look up a class or a resource
+ * only in the classpath elements which can contain it, similar to the {@code META-INF/INDEX.LIST} of a jar.
+ * <p>
+ * Directories are not indexed since their content can change, they are always searched. Neither are the jars with a
+ * {@code Class-Path} manifest attribute, whose referenced jars are only reachable through them.
+ * The package list of a jar can be persisted, keyed by the jar path, size and last modification time.
+ *
+ * @since 3.6.4
+ */
+final class ClasspathIndex {
+    private static final String VERSIONS = "META-INF/versions/";
+
+    private static final int[] NONE = new int[0];
+
+    private final Map<String, int[]> elementsByPackage;
+
+    private final int[] unindexedElements;
+
+    private final int[] allElements;
+
+    private ClasspathIndex(Map<String, int[]> elementsByPackage, int[] unindexedElements, int[] allElements) {
+        this.elementsByPackage = elementsByPackage;
+        this.unindexedElements = unindexedElements;
+        this.allElements = allElements;
+    }
+
+    /**
+     * @param resource the name of the resource, for example {@code org/acme/Foo.class}
+     * @return the indices of the classpath elements which can contain the resource, in classpath order
+     */
+    int[] candidates(final String resource) {
+        if (resource.endsWith("/")) { // directory lookup (classpath scanning), parent directories are not indexed
+            return allElements;
+        }
+        final int separator = resource.lastIndexOf('/');
+        final int[] elements = elementsByPackage.get(separator < 0 ? "" : resource.substring(0, separator));
+        return elements == null ? unindexedElements : elements;
+    }
+
+    /**
+     * @param elements the classpath elements
+     * @param cacheDirectory where to persist the package lists of the jars, can be {@code null}
+     * @param logger the logger, can be {@code null}
+     * @return the index of the classpath
+     */
+    static ClasspathIndex build(final List<Path> elements, final Path cacheDirectory, final Log logger) {
+        final Map<String, List<Integer>> packages = new HashMap<>();
+        final List<Integer> unindexed = new ArrayList<>();
+        for (int i = 0; i < elements.size(); i++) {
+            final Path element = elements.get(i);
+            final Set<String> elementPackages =
+                    Files.isRegularFile(element) ? packages(element, cacheDirectory, logger) : null;
+            if (elementPackages == null) {
+                unindexed.add(i);
+                continue;
+            }
+            for (final String name : elementPackages) {
+                packages.computeIfAbsent(name, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        final int[] unindexedElements = toArray(unindexed);
+        final Map<String, int[]> elementsByPackage = new HashMap<>(packages.size() * 4 / 3 + 1);
+        for (final Map.Entry<String, List<Integer>> entry : packages.entrySet()) {
+            final int[] indexed = toArray(entry.getValue());
+            final int[] merged = Arrays.copyOf(indexed, indexed.length + unindexedElements.length);
+            System.arraycopy(unindexedElements, 0, merged, indexed.length, unindexedElements.length);
+            Arrays.sort(merged);
+            elementsByPackage.put(entry.getKey(), merged);
+        }
+        final int[] allElements = new int[elements.size()];
+        Arrays.setAll(allElements, i -> i);
+        return new ClasspathIndex(elementsByPackage, unindexedElements, allElements);
+    }
+
+    private static Set<String> packages(final Path jar, final Path cacheDirectory, final Log logger) {
+        Path cached = null;
+        try {
+            if (cacheDirectory != null) {
+                final BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+                final String key = Caches.sha256(asList(
+                        jar.toAbsolutePath(),
+                        attributes.size(),
+                        attributes.lastModifiedTime().toMillis()));
+                cached = cacheDirectory.resolve(key.substring(0, 2)).resolve(key + ".idx");
+                if (Files.isRegularFile(cached)) {
+                    return new TreeSet<>(Files.readAllLines(cached, StandardCharsets.UTF_8));
+                }
+            }
+
+            final Set<String> packages = new TreeSet<>();
+            try (JarFile zip = new JarFile(jar.toFile(), false)) {
+                final Manifest manifest = zip.getManifest();
+                if (manifest != null && manifest.getMainAttributes().containsKey(Attributes.Name.CLASS_PATH)) {
+                    if (logger != null) {
+                        logger.debug("'" + jar + "' has a Class-Path manifest attribute, it will always be searched");
+                    }
+                    return null;
+                }
+                final Enumeration<JarEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (name.startsWith(VERSIONS)) { // multi-release jar, index the versioned package as well
+                        final int versionEnd = name.indexOf('/', VERSIONS.length());
+                        if (versionEnd > 0) {
+                            addPackage(packages, name.substring(versionEnd + 1));
+                        }
+                    }
+                    addPackage(packages, name);
+                }
+            }
+
+            if (cached != null) {
+                final StringBuilder content = new StringBuilder();
+                for (final String name : packages) {
+                    content.append(name).append('\n');
+                }
+                Caches.writeAtomically(cached, content.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            return packages;
+        } catch (final IOException | RuntimeException e) {
+            if (logger != null) {
+                logger.debug("Can't index '" + jar + "', it will always be searched: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    private static void addPackage(final Set<String> packages, final String entry) {
+        final int separator = entry.lastIndexOf('/');
+        if (separator == entry.length() - 1) { // directory entry, its content will be indexed if any
+            return;
+        }
+        packages.add(separator < 0 ? "" : entry.substring(0, separator));
+    }
+
+    private static int[] toArray(final List<Integer> values) {
+        if (values.isEmpty()) {
+            return NONE;
+        }
+        final int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+}
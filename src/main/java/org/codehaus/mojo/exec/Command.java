@@ -0,0 +1,118 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One of the commands run concurrently by the {@code commands} parameter of the {@code exec} goal.
+ *
+ * @since 3.6.4
+ */
+public class Command {
+    private String id;
+
+    private String executable;
+
+    private List<String> arguments = new ArrayList<>();
+
+    private Map<String, String> environmentVariables = new HashMap<>();
+
+    private File workingDirectory;
+
+    /**
+     * @return the identifier prefixing the output lines of the command, its executable by default.
+     */
+    public String getId() {
+        return id != null ? id : executable;
+    }
+
+    /**
+     * @param id the identifier prefixing the output lines of the command.
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the executable of the command.
+     */
+    public String getExecutable() {
+        return executable;
+    }
+
+    /**
+     * @param executable the executable of the command.
+     */
+    public void setExecutable(String executable) {
+        this.executable = executable;
+    }
+
+    /**
+     * @return the arguments of the command, {@code %classpath} being replaced by the project classpath.
+     */
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * @param arguments the arguments of the command.
+     */
+    public void setArguments(List<String> arguments) {
+        this.arguments = arguments;
+    }
+
+    /**
+     * @return the environment variables added to the ones of the goal.
+     */
+    public Map<String, String> getEnvironmentVariables() {
+        return environmentVariables;
+    }
+
+    /**
+     * @param environmentVariables the environment variables added to the ones of the goal.
+     */
+    public void setEnvironmentVariables(Map<String, String> environmentVariables) {
+        this.environmentVariables = environmentVariables;
+    }
+
+    /**
+     * @return the working directory of the command, the one of the goal by default.
+     */
+    public File getWorkingDirectory() {
+        return workingDirectory;
+    }
+
+    /**
+     * @param workingDirectory the working directory of the command.
+     */
+    public void setWorkingDirectory(File workingDirectory) {
+        this.workingDirectory = workingDirectory;
+    }
+
+    /** {@inheritDoc} */
+    public String toString() {
+        return getId();
+    }
+}
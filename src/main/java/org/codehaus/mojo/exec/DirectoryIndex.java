@@ -0,0 +1,199 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.apache.commons.exec.OS;
+
+/**
+ * The executables resolved by the executions of a session (PATH lookups, toolchains), so that the same executable is
+ * only searched once per session.
+ * <p>
+ * A resolution is reused while the resolved file still exists and, for a search, while the modification times of the
+ * directories searched up to the one containing it are unchanged: an executable added to a directory searched first
+ * is found by the next search. A search lists each searched directory once and
+ * reuses its listing while the modification time of the directory, which changes when an entry is added or removed,
+ * is unchanged: a directory costs a {@code stat} per search instead of one per candidate extension. A directory
+ * modified too recently to be trusted is not indexed.
+ *
+ * @since 3.6.4
+ */
+final class DirectoryIndex {
+    // file systems may only store the modification times with a 2 seconds granularity
+    private static final long MIN_AGE = 2000L;
+
+    private final Map<List<Object>, Resolution> resolutions = new ConcurrentHashMap<>();
+
+    private final Map<File, Listing> listings = new ConcurrentHashMap<>();
+
+    /**
+     * @param key what the resolution depends on: the name of the executable, the searched directories...
+     * @param resolver resolves the executable, returns {@code null} if not found
+     * @return the path of the executable or {@code null} if not found
+     */
+    String resolve(final List<Object> key, final Supplier<String> resolver) {
+        return memoize(key, () -> new Resolution(resolver.get(), new ArrayList<>(), new ArrayList<>()));
+    }
+
+    /**
+     * @param name the name of the executable
+     * @param directories the directories to search, in order
+     * @param suffixes the suffixes appended to the name, in order, {@code ""} for the name itself
+     * @return the absolute path of the first existing file or {@code null} if not found
+     */
+    String find(final String name, final List<String> directories, final List<String> suffixes) {
+        return memoize(Arrays.asList(name, directories, suffixes), () -> search(name, directories, suffixes));
+    }
+
+    private String memoize(final List<Object> key, final Supplier<Resolution> resolver) {
+        final Resolution resolved = resolutions.get(key);
+        if (resolved != null && resolved.isValid()) {
+            return resolved.path;
+        }
+        final Resolution resolution = resolver.get();
+        // not memoized when not found, the executable may be installed by a next module
+        if (resolution.path == null || !resolution.isTrusted()) {
+            resolutions.remove(key);
+        } else {
+            resolutions.put(key, resolution);
+        }
+        return resolution.path;
+    }
+
+    private Resolution search(final String name, final List<String> directories, final List<String> suffixes) {
+        final List<File> searched = new ArrayList<>();
+        final List<Long> lastModifiedTimes = new ArrayList<>();
+        for (final String directory : directories) {
+            final File parent = new File(directory, name).getAbsoluteFile().getParentFile();
+            if (parent == null) {
+                continue;
+            }
+            final long lastModified = parent.lastModified();
+            searched.add(parent);
+            lastModifiedTimes.add(lastModified);
+            final Listing listing = listing(parent, lastModified);
+            if (listing == Listing.MISSING) {
+                continue;
+            }
+            for (final String suffix : suffixes) {
+                final File file = new File(directory, name + suffix);
+                // present in the listing, or not indexed: also checks it is not a directory
+                if ((listing == null || listing.contains(file.getName())) && file.isFile()) {
+                    return new Resolution(file.getAbsolutePath(), searched, lastModifiedTimes);
+                }
+            }
+        }
+        return new Resolution(null, searched, lastModifiedTimes);
+    }
+
+    // null if the directory can't be indexed
+    private Listing listing(final File directory, final long lastModified) {
+        if (lastModified == 0L) { // not a directory, or not accessible
+            return Listing.MISSING;
+        }
+        Listing listing = listings.get(directory);
+        if (listing == null || listing.lastModified != lastModified) {
+            listing = null;
+            listings.remove(directory);
+            if (isTrusted(lastModified)) {
+                final String[] names = directory.list();
+                if (names != null) {
+                    listing = new Listing(lastModified, names);
+                    listings.put(directory, listing);
+                }
+            }
+        }
+        return listing;
+    }
+
+    private static boolean isTrusted(final long lastModified) {
+        return System.currentTimeMillis() - lastModified >= MIN_AGE;
+    }
+
+    private static final class Resolution {
+        private final String path;
+
+        // the directories searched up to the one containing the executable, and their modification times
+        private final List<File> directories;
+
+        private final List<Long> lastModifiedTimes;
+
+        private Resolution(final String path, final List<File> directories, final List<Long> lastModifiedTimes) {
+            this.path = path;
+            this.directories = directories;
+            this.lastModifiedTimes = lastModifiedTimes;
+        }
+
+        private boolean isTrusted() {
+            for (final long lastModified : lastModifiedTimes) {
+                if (lastModified != 0L && !DirectoryIndex.isTrusted(lastModified)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isValid() {
+            for (int i = 0; i < directories.size(); i++) {
+                if (directories.get(i).lastModified() != lastModifiedTimes.get(i)) {
+                    return false;
+                }
+            }
+            return new File(path).isFile();
+        }
+    }
+
+    private static final class Listing {
+        private static final Listing MISSING = new Listing(0L, new String[0]);
+
+        private final long lastModified;
+
+        private final Set<String> names;
+
+        private Listing(final long lastModified, final String[] names) {
+            this.lastModified = lastModified;
+            final Set<String> set = new HashSet<>();
+            for (final String name : names) {
+                set.add(normalize(name));
+            }
+            this.names = Collections.unmodifiableSet(set);
+        }
+
+        private boolean contains(final String name) {
+            return names.contains(normalize(name));
+        }
+
+        // Windows file systems are case insensitive
+        private static String normalize(final String name) {
+            return OS.isFamilyWindows() ? name.toLowerCase(Locale.ROOT) : name;
+        }
+    }
+}
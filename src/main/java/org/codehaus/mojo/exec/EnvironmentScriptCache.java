@@ -0,0 +1,136 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The environments produced by the {@code environmentScript} of the executions of a session, so that a script is
+ * only sourced once per session, or once for all the builds when the cache has a directory.
+ * <p>
+ * An environment is keyed by the path, content and modification time of the script, the environment variables given
+ * to the script and the environment of Maven. Only the variables the script added or changed are kept, the inherited
+ * ones (tokens and other secrets of the CI environment for example) are never written to the cache directory, whose
+ * files are only readable by their owner.
+ *
+ * @since 3.6.4
+ */
+final class EnvironmentScriptCache {
+    private final Map<String, Map<String, String>> environments = new ConcurrentHashMap<>();
+
+    /**
+     * @param script the environment script
+     * @param environmentVariables the environment variables given to the script
+     * @param parentEnvironment the environment of Maven
+     * @return the key of the environment produced by the script
+     * @throws IOException if the script can't be read
+     */
+    static String key(
+            final File script,
+            final Map<String, String> environmentVariables,
+            final Map<String, String> parentEnvironment)
+            throws IOException {
+        final List<Object> key = new ArrayList<>();
+        key.add(script.getAbsolutePath());
+        key.add(Caches.sha256(script.toPath()));
+        key.add(script.lastModified());
+        key.add(environmentVariables == null ? null : new TreeMap<>(environmentVariables));
+        key.add(new TreeMap<>(parentEnvironment));
+        return Caches.sha256(key);
+    }
+
+    /**
+     * @param key the key of the environment
+     * @param directory the directory of the persistent cache, {@code null} to only use the session cache
+     * @return the environment or {@code null} if not cached
+     */
+    Map<String, String> get(final String key, final Path directory) {
+        Map<String, String> environment = environments.get(key);
+        if (environment == null && directory != null) {
+            final Path file = directory.resolve(key + ".properties");
+            if (Files.isRegularFile(file)) {
+                final Properties properties = new Properties();
+                try (InputStream stream = Files.newInputStream(file)) {
+                    properties.load(stream);
+                } catch (IOException e) {
+                    return null; // recomputed and stored again
+                }
+                environment = new HashMap<>();
+                for (final String name : properties.stringPropertyNames()) {
+                    environment.put(name, properties.getProperty(name));
+                }
+                environments.put(key, environment);
+            }
+        }
+        return environment == null ? null : new HashMap<>(environment);
+    }
+
+    /**
+     * @param key the key of the environment
+     * @param environment the environment produced by the script
+     * @param scriptEnvironment the environment the script was sourced in
+     * @param directory the directory of the persistent cache, {@code null} to only use the session cache
+     * @return the variables added or changed by the script, which is what {@link #get(String, Path)} returns
+     * @throws IOException if the environment can't be stored in the directory
+     */
+    Map<String, String> put(
+            final String key,
+            final Map<String, String> environment,
+            final Map<String, String> scriptEnvironment,
+            final Path directory)
+            throws IOException {
+        final Map<String, String> changes = new HashMap<>();
+        for (final Map.Entry<String, String> variable : environment.entrySet()) {
+            // a variable without value is given to the programs as an empty one
+            final String value = variable.getValue() == null ? "" : variable.getValue();
+            if (!value.equals(scriptEnvironment.get(variable.getKey()))) {
+                changes.put(variable.getKey(), value);
+            }
+        }
+        environments.put(key, changes);
+        if (directory != null) {
+            final Properties properties = new Properties();
+            properties.putAll(changes);
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
+            properties.store(content, null);
+            final Path file = directory.resolve(key + ".properties");
+            Caches.writeAtomically(file, content.toByteArray());
+            if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                Files.setPosixFilePermissions(
+                        file, EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE));
+            }
+        }
+        return new HashMap<>(changes);
+    }
+}
@@ -23,6 +23,7 @@ import javax.inject.Inject;
 
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
@@ -42,7 +43,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
@@ -148,7 +157,9 @@ public class ExecMojo extends AbstractExecMojo {
      * Program standard and error output will be redirected to the file specified by this optional field. If not
      * specified the standard Maven logging is used. <br/>
      * <strong>Note:</strong> Be aware that <code>System.out</code> and <code>System.err</code> use buffering, so don't
-     * rely on the order!
+     * rely on the order! <br/>
+     * Unless {@link #inheritIo} is set, the program writes the file directly, without its output going through
+     * Maven.
      *
      * @since 1.1-beta-2
      * @see java.lang.System#err
@@ -157,6 +168,40 @@ public class ExecMojo extends AbstractExecMojo {
     @Parameter(property = "exec.outputFile")
     private File outputFile;
 
+    /**
+     * When {@link #outputFile} is set, the program error output is redirected to this file instead of being merged
+     * with the standard output in {@link #outputFile}.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.errorOutputFile")
+    private File errorOutputFile;
+
+    /**
+     * When greater than 0, the size in bytes above which {@link #outputFile} and {@link #errorOutputFile} are rolled:
+     * {@code out.log} is renamed to {@code out.log.1}, the previous segments being shifted.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.outputFileMaxSize", defaultValue = "0")
+    private long outputFileMaxSize;
+
+    /**
+     * The number of rolled segments of {@link #outputFileMaxSize} which are kept, the older ones are deleted.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.outputFileMaxFiles", defaultValue = "5")
+    private int outputFileMaxFiles = 5;
+
+    /**
+     * Whether the rolled segments of {@link #outputFileMaxSize} are compressed with gzip ({@code out.log.1.gz}).
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.outputFileCompress", defaultValue = "false")
+    private boolean outputFileCompress;
+
     /**
      * Program standard input, output and error streams will be inherited from the maven process.
      * This allow tighter control of the streams and the console.
@@ -243,6 +288,36 @@ public class ExecMojo extends AbstractExecMojo {
     @Parameter(property = "exec.quietLogs", defaultValue = "false")
     private boolean quietLogs;
 
+    /**
+     * When combined with {@code exec.useMavenLogger=true} and greater than 0, the maximum number of program output
+     * lines buffered for a dedicated thread logging them, so that a slow Maven console doesn't throttle the program.
+     * With 0 the lines are logged by the threads reading the program output. Not used by {@link #async} executions,
+     * whose output is read after the end of the goal.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.logBufferSize", defaultValue = "0")
+    private int logBufferSize;
+
+    /**
+     * What to do with a program output line when the buffer of {@link #logBufferSize} is full: {@code BLOCK} waits
+     * for the buffer to have room, {@code DROP} drops the line and {@code SPILL} writes it to
+     * {@link #logSpillFile}.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.logBufferOverflow", defaultValue = "BLOCK")
+    private AsyncLineSink.Overflow logBufferOverflow = AsyncLineSink.Overflow.BLOCK;
+
+    /**
+     * File where the program output lines are written when {@link #logBufferOverflow} is {@code SPILL}, required by
+     * this policy.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.logSpillFile", defaultValue = "${project.build.directory}/exec-output.log")
+    private File logSpillFile;
+
     /**
      * <p>
      * A list of arguments passed to the {@code executable}, which should be of type <code>&lt;argument&gt;</code> or
@@ -291,6 +366,19 @@ public class ExecMojo extends AbstractExecMojo {
     @Parameter
     private File environmentScript = null;
 
+    /**
+     * Directory where the environments produced by {@link #environmentScript} are stored, so that the script is not
+     * sourced again by the next builds while the script, {@link #environmentVariables} and the environment of Maven
+     * don't change. When not set, the environments are only reused by the executions of the current session.
+     * Only the variables added or changed by the script are stored, in files only readable by their owner. The
+     * warnings about the lines of the script output which can't be parsed are only logged when the script is sourced,
+     * not when its environment is reused.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.environmentScriptCache")
+    private File environmentScriptCache;
+
     /**
      * Exit codes to be resolved as successful execution for non-compliant applications (applications not returning 0
      * for success).
@@ -352,8 +440,106 @@ public class ExecMojo extends AbstractExecMojo {
     @Parameter(property = "exec.toolchainJavaHomeEnvName", defaultValue = "TOOLCHAIN_JAVA_HOME")
     private String toolchainJavaHomeEnvName = "TOOLCHAIN_JAVA_HOME";
 
+    /**
+     * When the executable is a {@code java} binary of JDK 13 or later, whether to use a dynamic class data sharing
+     * (AppCDS) archive to speed up the startup of the JVM. The first execution creates the archive of the classes it
+     * loaded when it exits successfully, the next executions using the same JDK and classpath map it. The archive is
+     * not created by {@link #async} executions.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.cdsArchive", defaultValue = "false")
+    private boolean cdsArchive;
+
+    /**
+     * Directory where the archives of {@link #cdsArchive} are stored.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.cdsArchiveDirectory", defaultValue = "${project.build.directory}/exec-cache/cds")
+    private File cdsArchiveDirectory;
+
+    /**
+     * When the executable is a {@code java} binary run with a classpath and a main class, whether to run the main
+     * method in a worker JVM kept alive between the executions instead of starting a new JVM each time. Each
+     * execution gets its own classloader, the system properties, default locale, default time zone and default
+     * uncaught exception handler are reset after it and the program has no standard input. A worker is reused by the
+     * executions having the same executable, JVM options, working directory and environment. A program calling
+     * {@code System.exit} or leaving threads running terminates its worker, which is started again by the next
+     * execution.
+     * <p>
+     * Not used with {@link #async}, {@link #outputFile}, {@link #timeout} or when the command line uses an executable
+     * jar, modules, a source file or argument files, nor when the main class has no
+     * {@code public static void main(String[])} method: these executions start a JVM as usual.
+     * <p>
+     * <b>Note:</b> the rest of the state of the JVM is shared by the executions of a worker: the classes of the JDK
+     * initialized by a program and their static caches, a {@code URLStreamHandlerFactory} or security manager set by a
+     * program, the JIT compiled code... Only use it for programs which don't depend on a fresh JVM.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.javaWorker", defaultValue = "false")
+    private boolean javaWorker;
+
+    /**
+     * The time in seconds a {@link #javaWorker} waits for the next execution before exiting, greater than 0.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.javaWorkerIdleTimeout", defaultValue = "60")
+    private int javaWorkerIdleTimeout;
+
+    /**
+     * Commands run concurrently instead of the {@link #executable}, each one with its own executable, arguments,
+     * environment variables (added to {@link #environmentVariables}) and working directory. Their output lines are
+     * logged to the Maven logger, prefixed by the id of the command. For example:
+     *
+     * <pre>
+     * &lt;commands&gt;
+     *   &lt;command&gt;
+     *     &lt;id&gt;api&lt;/id&gt;
+     *     &lt;executable&gt;protoc&lt;/executable&gt;
+     *     &lt;arguments&gt;
+     *       &lt;argument&gt;--java_out=target/generated-sources&lt;/argument&gt;
+     *       &lt;argument&gt;api.proto&lt;/argument&gt;
+     *     &lt;/arguments&gt;
+     *     &lt;environmentVariables&gt;
+     *       &lt;LANG&gt;C&lt;/LANG&gt;
+     *     &lt;/environmentVariables&gt;
+     *     &lt;workingDirectory&gt;src/main/proto&lt;/workingDirectory&gt;
+     *   &lt;/command&gt;
+     * &lt;/commands&gt;
+     * </pre>
+     *
+     * The {@link #async} and output file parameters don't apply to the commands.
+     *
+     * @since 3.6.4
+     */
+    @Parameter
+    private List<Command> commands;
+
+    /**
+     * The maximum number of {@link #commands} running at the same time, the number of processors by default.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.parallelism", defaultValue = "0")
+    private int parallelism;
+
+    /**
+     * Whether the first failing command of {@link #commands} stops the other ones, otherwise all the commands run
+     * and the failures are reported together.
+     *
+     * @since 3.6.4
+     */
+    @Parameter(property = "exec.failFast", defaultValue = "true")
+    private boolean failFast = true;
+
     private final ToolchainManager toolchainManager;
 
+    // the classpath and modulepath elements given to the execution
+    private final List<String> computedPaths = new ArrayList<>();
+
     public static final String CLASSPATH_TOKEN = "%classpath";
 
     public static final String MODULEPATH_TOKEN = "%modulepath";
@@ -370,6 +556,16 @@ public class ExecMojo extends AbstractExecMojo {
      * @throws MojoExecutionException if a failure happens
      */
     public void execute() throws MojoExecutionException {
+        if (commands != null && !commands.isEmpty()) {
+            if (isSkip()) {
+                getLog().info("skipping execute as per configuration");
+                return;
+            }
+            executeCommands();
+            registerSourceRoots();
+            return;
+        }
+
         if (executable == null) {
             if (executableDependency == null) {
                 throw new MojoExecutionException("The parameter 'executable' is missing or invalid");
@@ -410,11 +606,41 @@ public class ExecMojo extends AbstractExecMojo {
 
             CommandLine commandLine = getExecutablePath(enviro, workingDirectory);
 
+            // an async execution can't tell whether it succeeded
+            if (!async
+                    && isIncremental()
+                    && isUpToDate(fingerprintValues(commandLine, commandArguments), classpath())) {
+                registerSourceRoots();
+                return;
+            }
+
+            String workerJava = null;
+            JavaWorkers.Invocation invocation = null;
+            if (javaWorker && isJavaExec() && !async && outputFile == null && timeout <= 0) {
+                if (javaWorkerIdleTimeout <= 0) {
+                    throw new MojoExecutionException(
+                            "The parameter 'javaWorkerIdleTimeout' must be greater than 0: " + javaWorkerIdleTimeout);
+                }
+                workerJava = locateJava(commandLine, enviro);
+                invocation = workerJava == null ? null : JavaWorkers.parse(commandArguments);
+                if (invocation == null) {
+                    getLog().debug("The command line can't run in a worker JVM, starting a new JVM");
+                }
+            }
+
+            CdsArchive archive = null;
+            if (invocation == null && cdsArchive && isJavaExec()) {
+                archive = getCdsArchive(commandLine, enviro);
+                if (archive != null) {
+                    commandArguments.addAll(0, archive.jvmArguments());
+                }
+            }
+
             String[] args = commandArguments.toArray(new String[commandArguments.size()]);
 
             commandLine.addArguments(args, false);
 
-            Executor exec = new ExtendedExecutor(inheritIo);
+            ExtendedExecutor exec = new ExtendedExecutor(inheritIo);
             if (this.timeout > 0) {
                 exec.setWatchdog(new ExecuteWatchdog(this.timeout));
             }
@@ -427,16 +653,37 @@ public class ExecMojo extends AbstractExecMojo {
             }
             getLog().debug("Executing command line: " + commandLine);
 
+            boolean succeeded = false;
             try {
                 int resultCode;
                 if (outputFile != null) {
-                    if (!outputFile.getParentFile().exists()
-                            && !outputFile.getParentFile().mkdirs()) {
-                        getLog().warn("Could not create non existing parent directories for log file: " + outputFile);
+                    createParentDirectories(outputFile);
+                    if (errorOutputFile != null) {
+                        createParentDirectories(errorOutputFile);
                     }
 
-                    try (FileOutputStream outputStream = new FileOutputStream(outputFile)) {
-                        resultCode = executeCommandLine(exec, commandLine, enviro, outputStream);
+                    if (outputFileMaxSize <= 0 && exec.redirectOutputTo(outputFile, errorOutputFile)) {
+                        // the process writes the files itself, no stream to pump
+                        resultCode = executeCommandLine(exec, commandLine, enviro, new PumpStreamHandler(null, null));
+                    } else if (outputFileMaxSize <= 0 && errorOutputFile == null) {
+                        try (FileOutputStream outputStream = new FileOutputStream(outputFile)) {
+                            resultCode = executeCommandLine(exec, commandLine, enviro, outputStream);
+                        }
+                    } else {
+                        OutputStream out = new RollingFileOutputStream(
+                                outputFile, outputFileMaxSize, outputFileMaxFiles, outputFileCompress);
+                        OutputStream err = errorOutputFile == null
+                                ? out
+                                : new RollingFileOutputStream(
+                                        errorOutputFile, outputFileMaxSize, outputFileMaxFiles, outputFileCompress);
+                        try {
+                            resultCode = executeCommandLine(exec, commandLine, enviro, new PumpStreamHandler(out, err));
+                        } finally {
+                            if (!async) { // an async process keeps writing them
+                                out.close();
+                                err.close();
+                            }
+                        }
                     }
                 } else if (useMavenLogger) {
                     getLog().debug("Will redirect program output to Maven logger");
@@ -456,12 +703,39 @@ public class ExecMojo extends AbstractExecMojo {
                     };
                     Consumer<String> mavenErrRedirect = logMessage -> getLog().error(logPrefix + logMessage);
 
-                    try (OutputStream out = new LineRedirectOutputStream(mavenOutRedirect);
+                    // the sink is closed at the end of the goal, it can't outlive it to log an async process
+                    AsyncLineSink sink = null;
+                    if (logBufferSize > 0 && !async) {
+                        if (logBufferOverflow == AsyncLineSink.Overflow.SPILL && logSpillFile == null) {
+                            throw new MojoExecutionException(
+                                    "The parameter 'logSpillFile' is required when 'logBufferOverflow' is SPILL");
+                        }
+                        sink = new AsyncLineSink(
+                                logBufferSize,
+                                logBufferOverflow,
+                                logSpillFile == null ? null : logSpillFile.toPath(),
+                                getLog());
+                        mavenOutRedirect = sink.redirect(mavenOutRedirect);
+                        mavenErrRedirect = sink.redirect(mavenErrRedirect);
+                    }
+
+                    // the sink is closed last, once the streams flushed their last line
+                    try (AsyncLineSink ignored = sink;
+                            OutputStream out = new LineRedirectOutputStream(mavenOutRedirect);
                             OutputStream err = new LineRedirectOutputStream(mavenErrRedirect)) {
-                        resultCode = executeCommandLine(exec, commandLine, enviro, out, err);
+                        Integer workerResult =
+                                invocation != null ? executeInWorker(workerJava, enviro, invocation, out, err) : null;
+                        resultCode = workerResult != null
+                                ? workerResult
+                                : executeCommandLine(exec, commandLine, enviro, out, err);
                     }
                 } else {
-                    resultCode = executeCommandLine(exec, commandLine, enviro, System.out, System.err);
+                    Integer workerResult = invocation != null
+                            ? executeInWorker(workerJava, enviro, invocation, System.out, System.err)
+                            : null;
+                    resultCode = workerResult != null
+                            ? workerResult
+                            : executeCommandLine(exec, commandLine, enviro, System.out, System.err);
                 }
 
                 if (isResultCodeAFailure(resultCode)) {
@@ -469,6 +743,10 @@ public class ExecMojo extends AbstractExecMojo {
                     getLog().error(message);
                     throw new MojoExecutionException(message);
                 }
+                succeeded = true;
+                if (!async) {
+                    recordSuccess();
+                }
             } catch (ExecuteException e) {
                 if (exec.getWatchdog() != null && exec.getWatchdog().killedProcess()) {
                     final String message = "Timeout. Process runs longer than " + this.timeout + " ms.";
@@ -481,6 +759,10 @@ public class ExecMojo extends AbstractExecMojo {
             } catch (IOException e) {
                 getLog().error("Command execution failed.", e);
                 throw new MojoExecutionException("Command execution failed.", e);
+            } finally {
+                if (archive != null) {
+                    archive.completed(succeeded);
+                }
             }
 
             registerSourceRoots();
@@ -489,6 +771,183 @@ public class ExecMojo extends AbstractExecMojo {
         }
     }
 
+    private void executeCommands() throws MojoExecutionException {
+        if (async) {
+            throw new MojoExecutionException("The parameter 'async' is not supported with 'commands'");
+        }
+        handleWorkingDirectory();
+        Map<String, String> enviro = handleSystemEnvVariables();
+
+        // computed once since the path computation is not thread safe, before the fingerprint which includes it
+        String classpath = null;
+        for (Command command : commands) {
+            if (command.getArguments() != null
+                    && command.getArguments().stream().anyMatch(arg -> arg != null && arg.contains(CLASSPATH_TOKEN))) {
+                classpath = computeClasspathString(null);
+                break;
+            }
+        }
+        final String commandsClasspath = classpath;
+
+        if (isIncremental() && isUpToDate(commandsFingerprintValues(), classpath())) {
+            return;
+        }
+
+        int threads = Math.min(
+                commands.size(),
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CompletionService<Void> completion = new ExecutorCompletionService<>(pool);
+        Map<Future<Void>, Command> submitted = new HashMap<>();
+        for (Command command : commands) {
+            submitted.put(
+                    completion.submit(() -> {
+                        executeCommand(command, enviro, commandsClasspath);
+                        return null;
+                    }),
+                    command);
+        }
+
+        List<String> failures = new ArrayList<>();
+        try {
+            for (int i = 0; i < submitted.size(); i++) {
+                Future<Void> future = completion.take();
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    String message =
+                            "[" + submitted.get(future) + "] " + e.getCause().getMessage();
+                    getLog().error(message);
+                    failures.add(message);
+                    if (failFast) {
+                        break;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while running the commands", e);
+        } finally {
+            // interrupting the running commands destroys their process
+            pool.shutdownNow();
+            try {
+                pool.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw new MojoExecutionException(failures.size() + " command(s) failed: " + String.join(", ", failures));
+        }
+        recordSuccess();
+    }
+
+    private List<Object> commandsFingerprintValues() {
+        List<Object> values = new ArrayList<>();
+        values.add(workingDirectory.getAbsolutePath());
+        values.add(configuredEnvironment());
+        for (Command command : commands) {
+            values.add(command.getId());
+            values.add(command.getExecutable());
+            values.add(command.getArguments());
+            values.add(
+                    command.getEnvironmentVariables() == null
+                            ? null
+                            : new TreeMap<>(command.getEnvironmentVariables()));
+            values.add(command.getWorkingDirectory());
+        }
+        return values;
+    }
+
+    private List<Object> fingerprintValues(CommandLine commandLine, List<String> commandArguments) {
+        List<Object> values = new ArrayList<>(Arrays.asList(commandLine.toStrings()));
+        values.addAll(commandArguments);
+        values.add(workingDirectory.getAbsolutePath());
+        values.add(configuredEnvironment());
+        return values;
+    }
+
+    private List<Path> classpath() {
+        List<Path> classpath = new ArrayList<>();
+        for (String element : computedPaths) {
+            classpath.add(Paths.get(element));
+        }
+        return classpath;
+    }
+
+    // the environment of the execution without the one of Maven, which changes from a shell to another
+    private Map<String, String> configuredEnvironment() {
+        Map<String, String> configured = new TreeMap<>();
+        if (environmentVariables != null) {
+            configured.putAll(environmentVariables);
+        }
+        if (environmentScript != null) {
+            configured.put("environmentScript", environmentScript.getAbsolutePath());
+        }
+        return configured;
+    }
+
+    private void executeCommand(Command command, Map<String, String> baseEnviro, String classpath)
+            throws MojoExecutionException {
+        if (command.getExecutable() == null) {
+            throw new MojoExecutionException("The parameter 'executable' of the command is missing");
+        }
+        File dir = command.getWorkingDirectory() != null ? command.getWorkingDirectory() : workingDirectory;
+        Map<String, String> enviro = new HashMap<>(baseEnviro);
+        if (command.getEnvironmentVariables() != null) {
+            enviro.putAll(command.getEnvironmentVariables());
+        }
+
+        CommandLine commandLine = getExecutablePath(command.getExecutable(), enviro, dir);
+        if (command.getArguments() != null) {
+            for (String argument : command.getArguments()) {
+                if (argument == null) {
+                    argument = "";
+                } else if (argument.contains(CLASSPATH_TOKEN)) {
+                    argument = argument.replace(CLASSPATH_TOKEN, classpath);
+                }
+                commandLine.addArgument(argument, false);
+            }
+        }
+
+        ExtendedExecutor exec = new ExtendedExecutor(false);
+        if (this.timeout > 0) {
+            exec.setWatchdog(new ExecuteWatchdog(this.timeout));
+        }
+        exec.setWorkingDirectory(dir);
+        fillSuccessCodes(exec);
+        getLog().debug("Executing command line: " + commandLine);
+
+        String logPrefix = "[" + command.getId() + "] ";
+        Consumer<String> outRedirect = logMessage -> {
+            if (quietLogs) {
+                getLog().debug(logPrefix + logMessage);
+            } else {
+                getLog().info(logPrefix + logMessage);
+            }
+        };
+        Consumer<String> errRedirect = logMessage -> getLog().error(logPrefix + logMessage);
+
+        int resultCode;
+        try (OutputStream out = new LineRedirectOutputStream(outRedirect);
+                OutputStream err = new LineRedirectOutputStream(errRedirect)) {
+            // no input pumped: the commands can't share the standard input of Maven
+            resultCode = executeCommandLine(exec, commandLine, enviro, new PumpStreamHandler(out, err));
+        } catch (ExecuteException e) {
+            if (exec.getWatchdog() != null && exec.getWatchdog().killedProcess()) {
+                throw new MojoExecutionException("Timeout. Process runs longer than " + this.timeout + " ms.", e);
+            }
+            throw new MojoExecutionException("Command execution failed: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Command execution failed: " + e.getMessage(), e);
+        }
+
+        if (isResultCodeAFailure(resultCode)) {
+            throw new MojoExecutionException("Result of " + commandLine + " execution is: '" + resultCode + "'.");
+        }
+    }
+
     private Map<String, String> handleSystemEnvVariables() throws MojoExecutionException {
         // Avoid creating env vars that differ only in case on Windows.
         // https://github.com/mojohaus/exec-maven-plugin/issues/328
@@ -501,7 +960,7 @@ public class ExecMojo extends AbstractExecMojo {
 
         if (this.environmentScript != null) {
             getLog().info("Pick up external environment script: " + this.environmentScript);
-            Map<String, String> envVarsFromScript = this.createEnvs(this.environmentScript);
+            Map<String, String> envVarsFromScript = loadEnvironmentScript();
             if (envVarsFromScript != null) {
                 enviro.putAll(envVarsFromScript);
             }
@@ -548,6 +1007,55 @@ public class ExecMojo extends AbstractExecMojo {
         }
     }
 
+    private CdsArchive getCdsArchive(CommandLine commandLine, Map<String, String> enviro) {
+        String java = locateJava(commandLine, enviro);
+        if (java == null) {
+            getLog().debug("Skipping CDS archive");
+            return null;
+        }
+        return CdsArchive.of(cdsArchiveDirectory.toPath(), Paths.get(java), computedPaths, !async, getLog());
+    }
+
+    /**
+     * @return the absolute path of the java executable or {@code null} if it is wrapped in a shell or can't be found
+     */
+    private String locateJava(CommandLine commandLine, Map<String, String> enviro) {
+        if (commandLine.getArguments().length > 0) { // wrapped in a shell
+            return null;
+        }
+        String java = commandLine.getExecutable();
+        if (!new File(java).isAbsolute()) {
+            java = findExecutable(java, getExecutablePaths(enviro), getDirectoryIndex());
+            if (java == null) {
+                getLog().debug("Can't locate " + commandLine.getExecutable());
+                return null;
+            }
+        }
+        return java;
+    }
+
+    private Integer executeInWorker(
+            String java,
+            Map<String, String> enviro,
+            JavaWorkers.Invocation invocation,
+            OutputStream out,
+            OutputStream err)
+            throws IOException {
+        Integer resultCode =
+                JavaWorkers.execute(java, workingDirectory, enviro, invocation, javaWorkerIdleTimeout, out, err);
+        if (resultCode == null) {
+            getLog().debug("The main class " + invocation.getMainClass()
+                    + " has no public static void main(String[]) method, starting a new JVM");
+        }
+        return resultCode;
+    }
+
+    private void createParentDirectories(File file) {
+        if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            getLog().warn("Could not create non existing parent directories for log file: " + file);
+        }
+    }
+
     private void handleSystemPropertyArguments(String argsProp, List<String> commandArguments)
             throws MojoExecutionException {
         getLog().debug("got arguments from system properties: " + argsProp);
@@ -566,7 +1074,7 @@ public class ExecMojo extends AbstractExecMojo {
             if (isLongClassPathArgument(args[i])) {
                 // it is assumed that starting from -cp or -classpath the arguments
                 // are: -classpath/-cp %classpath mainClass
-                // the arguments are replaced with: -jar $TMP/maven-exec.jar
+                // the arguments are replaced with: -jar target/exec-cache/jars/maven-exec-<hash>.jar
                 // NOTE: the jar will contain the classpath and the main class
                 commandArguments.add("-jar");
                 File tmpFile = createJar(computePath(null), args[i + 2]);
@@ -590,7 +1098,7 @@ public class ExecMojo extends AbstractExecMojo {
                 if (isLongClassPathArgument(specialArg) && argument instanceof Classpath) {
                     // it is assumed that starting from -cp or -classpath the arguments
                     // are: -classpath/-cp %classpath mainClass
-                    // the arguments are replaced with: -jar $TMP/maven-exec.jar
+                    // the arguments are replaced with: -jar target/exec-cache/jars/maven-exec-<hash>.jar
                     // NOTE: the jar will contain the classpath and the main class
                     commandArguments.add("-jar");
 
@@ -741,6 +1249,7 @@ public class ExecMojo extends AbstractExecMojo {
             resultList.add(artifact.getFile().getAbsolutePath());
         }
 
+        computedPaths.addAll(resultList);
         return resultList;
     }
 
@@ -769,6 +1278,10 @@ public class ExecMojo extends AbstractExecMojo {
     private ProcessDestroyer processDestroyer;
 
     CommandLine getExecutablePath(Map<String, String> enviro, File dir) {
+        return getExecutablePath(executable, enviro, dir);
+    }
+
+    private CommandLine getExecutablePath(String executable, Map<String, String> enviro, File dir) {
         File execFile = new File(executable);
         String exec = null;
         if (execFile.isFile()) {
@@ -784,13 +1297,14 @@ public class ExecMojo extends AbstractExecMojo {
             // available in SDK 6.
             if (tc != null) {
                 getLog().info("Toolchain in exec-maven-plugin: " + tc);
-                exec = tc.findTool(executable);
+                exec = getDirectoryIndex()
+                        .resolve(Arrays.asList(tc.getType(), tc.toString(), executable), () -> tc.findTool(executable));
             } else {
                 if (OS.isFamilyWindows()) {
                     List<String> paths = this.getExecutablePaths(enviro);
                     paths.add(0, dir.getAbsolutePath());
 
-                    exec = findExecutable(executable, paths);
+                    exec = findExecutable(executable, paths, getDirectoryIndex());
                 }
             }
         }
@@ -831,6 +1345,23 @@ public class ExecMojo extends AbstractExecMojo {
         return f.getAbsolutePath();
     }
 
+    /**
+     * Same as {@link #findExecutable(String, List)}, the resolution being memoized by the index of the session.
+     */
+    private static String findExecutable(
+            final String executable, final List<String> paths, final DirectoryIndex index) {
+        List<String> suffixes = new ArrayList<>();
+        if (!OS.isFamilyWindows()) {
+            suffixes.add("");
+        }
+        suffixes.addAll(getExecutableExtensions());
+        return index.find(executable, paths, suffixes);
+    }
+
+    private DirectoryIndex getDirectoryIndex() {
+        return SessionState.get(getSession(), DirectoryIndex.class, DirectoryIndex::new);
+    }
+
     private static boolean hasNativeExtension(final String exec) {
         final String lowerCase = exec.toLowerCase();
         return lowerCase.endsWith(".exe") || lowerCase.endsWith(".com");
@@ -944,6 +1475,10 @@ public class ExecMojo extends AbstractExecMojo {
         this.arguments = arguments;
     }
 
+    void setCommands(List<Command> commands) {
+        this.commands = commands;
+    }
+
     void setBasedir(File basedir) {
         this.basedir = basedir;
     }
@@ -976,19 +1511,64 @@ public class ExecMojo extends AbstractExecMojo {
         return null;
     }
 
+    private Map<String, String> loadEnvironmentScript() throws MojoExecutionException {
+        EnvironmentScriptCache cache =
+                SessionState.get(getSession(), EnvironmentScriptCache.class, EnvironmentScriptCache::new);
+        Path directory = environmentScriptCache == null ? null : environmentScriptCache.toPath();
+        String key;
+        try {
+            key = EnvironmentScriptCache.key(environmentScript, environmentVariables, System.getenv());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Can't read environment script " + environmentScript, e);
+        }
+
+        Map<String, String> envVars = cache.get(key, directory);
+        if (envVars != null) {
+            getLog().debug("Reusing the environment of " + environmentScript);
+            return envVars;
+        }
+        envVars = createEnvs(environmentScript);
+        if (envVars != null) {
+            Map<String, String> scriptEnvironment = new HashMap<>(System.getenv());
+            if (environmentVariables != null) {
+                scriptEnvironment.putAll(environmentVariables);
+            }
+            try {
+                cache.put(key, envVars, scriptEnvironment, directory);
+            } catch (IOException e) {
+                getLog().warn("Can't store the environment of " + environmentScript + ": " + e.getMessage());
+            }
+        }
+        return envVars;
+    }
+
     /**
      * Create a jar with just a manifest containing a Main-Class entry for SurefireBooter and a Class-Path entry for all
      * classpath elements. Copied from surefire (ForkConfiguration#createJar())
+     * <p>
+     * The jar is named by a hash of the classpath and main class and reused by the next executions when they didn't
+     * change, instead of writing a new temporary jar each time.
      *
      * @param classPath List&lt;String> of all classpath elements.
+     * @param mainClass the main class of the jar.
      * @return
      * @throws IOException
      */
     private File createJar(List<String> classPath, String mainClass) throws IOException {
-        File file = Files.createTempFile("maven-exec", ".jar").toFile();
-        file.deleteOnExit();
-        try (FileOutputStream fos = new FileOutputStream(file);
-                JarOutputStream jos = new JarOutputStream(fos)) {
+        List<Object> key = new ArrayList<>(classPath);
+        key.add(mainClass);
+        Path file = buildDirectory
+                .toPath()
+                .resolve("exec-cache")
+                .resolve("jars")
+                .resolve("maven-exec-" + Caches.sha256(key) + ".jar");
+        if (Files.isRegularFile(file)) {
+            getLog().debug("Reusing manifest jar " + file);
+            return file.toFile();
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JarOutputStream jos = new JarOutputStream(bytes)) {
             jos.setLevel(JarOutputStream.STORED);
             JarEntry je = new JarEntry("META-INF/MANIFEST.MF");
             jos.putNextEntry(je);
@@ -1009,8 +1589,9 @@ public class ExecMojo extends AbstractExecMojo {
 
             man.write(jos);
         }
+        Caches.writeAtomically(file, bytes.toByteArray());
 
-        return file;
+        return file.toFile();
     }
 
     private void createArgFile(String filePath, List<String> lines) throws IOException {
@@ -38,10 +38,33 @@ public class ExtendedExecutor extends DefaultExecutor {
 
     private final boolean inheritIo;
 
+    private File outputFile;
+
+    private File errorFile;
+
     public ExtendedExecutor(boolean inheritIo) {
         this.inheritIo = inheritIo;
     }
 
+    /**
+     * Makes the launched processes write their output and error streams directly to files, without any thread
+     * pumping them, when the platform allows it.
+     *
+     * @param outputFile the file receiving the output stream, truncated at launch
+     * @param errorFile the file receiving the error stream, truncated at launch, or {@code null} to write it to the
+     *            output file
+     * @return {@code true} if the streams will be redirected, {@code false} if they must be pumped
+     * @since 3.6.4
+     */
+    public boolean redirectOutputTo(File outputFile, File errorFile) {
+        if (inheritIo || OS.isFamilyOpenVms()) {
+            return false;
+        }
+        this.outputFile = outputFile;
+        this.errorFile = errorFile;
+        return true;
+    }
+
     @Override
     protected Process launch(CommandLine command, Map<String, String> env, Path workingDirectory) throws IOException {
         return this.launch(command, env, workingDirectory.toFile());
@@ -64,6 +87,13 @@ public class ExtendedExecutor extends DefaultExecutor {
             pb.directory(dir);
             if (inheritIo) {
                 pb.inheritIO();
+            } else if (outputFile != null) {
+                pb.redirectOutput(ProcessBuilder.Redirect.to(outputFile));
+                if (errorFile != null) {
+                    pb.redirectError(ProcessBuilder.Redirect.to(errorFile));
+                } else {
+                    pb.redirectErrorStream(true);
+                }
             }
             return pb.start();
         }
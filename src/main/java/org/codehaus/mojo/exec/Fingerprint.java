@@ -0,0 +1,180 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.model.FileSet;
+import org.codehaus.plexus.util.DirectoryScanner;
+
+/**
+ * The fingerprint of an execution: a hash of the content of its input files and of the values configuring it, stored
+ * once the execution succeeded so that the next one can be skipped when nothing changed.
+ *
+ * @since 3.6.4
+ */
+final class Fingerprint {
+    private Fingerprint() {
+        // no-op
+    }
+
+    /**
+     * @param basedir the directory the relative file sets are resolved against
+     * @param inputs the input files of the execution
+     * @param values the values configuring the execution, in a stable order
+     * @return the fingerprint of the execution
+     * @throws IOException if an input file can't be read
+     */
+    static String of(final File basedir, final List<FileSet> inputs, final Collection<?> values) throws IOException {
+        final List<Object> key = new ArrayList<>(values);
+        for (final FileSet input : inputs) {
+            final File directory = directory(basedir, input);
+            key.add(directory.getAbsolutePath());
+            for (final String file : scan(directory, input)) {
+                key.add(file);
+                key.add(Caches.sha256(directory.toPath().resolve(file)));
+            }
+        }
+        return Caches.sha256(key);
+    }
+
+    /**
+     * Adds a classpath element to the values of a fingerprint: its path and its {@link Caches#stamp(Iterable) stamp},
+     * so that recompiled classes of a directory like {@code target/classes} are taken into account.
+     *
+     * @param values the values of the fingerprint
+     * @param element the classpath element
+     * @throws IOException if the attributes of the element can't be read
+     */
+    static void addClasspathElement(final List<Object> values, final String element) throws IOException {
+        values.add(element);
+        values.addAll(Caches.stamp(Collections.singletonList(Paths.get(element))));
+    }
+
+    /**
+     * The key of the outputs of an execution in the {@link BuildCache}. Unlike the fingerprint, which only stamps the
+     * classpath directories, it hashes their content: the outputs produced from other classes, on another branch for
+     * example, must never be restored. The outputs being recorded by file set position, their definition is part of
+     * the key as well.
+     *
+     * @param fingerprint the fingerprint of the execution
+     * @param basedir the directory the relative file sets are resolved against
+     * @param outputs the output files of the execution
+     * @param classpath the classpath of the execution
+     * @return the key of the outputs of the execution
+     * @throws IOException if a file of a classpath directory can't be read
+     */
+    static String buildCacheKey(
+            final String fingerprint, final File basedir, final List<FileSet> outputs, final List<Path> classpath)
+            throws IOException {
+        final List<Object> key = new ArrayList<>();
+        key.add(fingerprint);
+        for (final FileSet output : outputs) {
+            key.add(directory(basedir, output).getAbsolutePath());
+            key.add(output.getIncludes());
+            key.add(output.getExcludes());
+        }
+        for (final Path element : classpath) {
+            if (!Files.isDirectory(element)) { // jars are stamped in the fingerprint
+                continue;
+            }
+            final List<Path> files;
+            try (Stream<Path> walk = Files.walk(element)) {
+                files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            key.add(element.toAbsolutePath());
+            for (final Path file : files) {
+                key.add(element.relativize(file));
+                key.add(Caches.sha256(file));
+            }
+        }
+        return Caches.sha256(key);
+    }
+
+    /**
+     * @param basedir the directory the relative file sets are resolved against
+     * @param outputs the output files of the execution
+     * @return {@code true} if each of the file sets matches at least one file
+     */
+    static boolean outputsExist(final File basedir, final List<FileSet> outputs) {
+        for (final FileSet output : outputs) {
+            if (scan(directory(basedir, output), output).isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param file the stored fingerprint
+     * @param fingerprint the fingerprint of the execution
+     * @return {@code true} if the stored fingerprint is the one of the execution
+     * @throws IOException if the stored fingerprint can't be read
+     */
+    static boolean matches(final Path file, final String fingerprint) throws IOException {
+        return Files.isRegularFile(file)
+                && fingerprint.equals(new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim());
+    }
+
+    /**
+     * @param file where to store the fingerprint
+     * @param fingerprint the fingerprint of the succeeded execution
+     * @throws IOException if the fingerprint can't be stored
+     */
+    static void store(final Path file, final String fingerprint) throws IOException {
+        Caches.writeAtomically(file, fingerprint.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static File directory(final File basedir, final FileSet fileSet) {
+        final File directory = new File(fileSet.getDirectory() == null ? "." : fileSet.getDirectory());
+        return directory.isAbsolute() || basedir == null ? directory : new File(basedir, directory.getPath());
+    }
+
+    static List<String> scan(final File directory, final FileSet fileSet) {
+        if (!directory.isDirectory()) {
+            return new ArrayList<>();
+        }
+        final DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir(directory);
+        if (!fileSet.getIncludes().isEmpty()) {
+            scanner.setIncludes(fileSet.getIncludes().toArray(new String[0]));
+        }
+        if (!fileSet.getExcludes().isEmpty()) {
+            scanner.setExcludes(fileSet.getExcludes().toArray(new String[0]));
+        }
+        scanner.addDefaultExcludes();
+        scanner.scan();
+        final List<String> files = new ArrayList<>(Arrays.asList(scanner.getIncludedFiles()));
+        files.sort(null); // the scan order depends on the file system
+        return files;
+    }
+}
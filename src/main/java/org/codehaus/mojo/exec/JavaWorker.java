@@ -0,0 +1,339 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TimeZone;
+
+/**
+ * The main class of a JVM kept alive by {@link JavaWorkers} to run the main methods of the {@code exec} goal
+ * executions, each one in its own classloader, to avoid the startup and warmup of a JVM per execution.
+ * <p>
+ * It only depends on the JDK since it runs with the plugin jar alone as classpath. It prints the port it listens to
+ * on its standard output, then serves one execution per connection: the request is the token, the classpath, the main
+ * class and the arguments, the response the output and error frames of the execution followed by its exit code and
+ * whether the worker can be reused, or a single {@link #UNSUPPORTED} frame when the main class has no
+ * {@code public static void main(String[])} method. The
+ * token is the first line of the standard input of the worker, known only by the build JVM: a connection not giving it
+ * is closed without running anything, since any local user can connect to the port. The worker exits when it has been
+ * idle for the timeout given as argument, when the build JVM dies (its standard input is closed) or when the executed
+ * program calls {@code System.exit}.
+ * <p>
+ * The default locale, time zone and uncaught exception handler are reset after each execution. An execution leaving
+ * threads running makes the worker exit once it answered, since they may still use the JVM state.
+ *
+ * @since 3.6.4
+ */
+public final class JavaWorker {
+    static final byte OUT = 1;
+
+    static final byte ERR = 2;
+
+    static final byte EXIT = 3;
+
+    static final byte UNSUPPORTED = 4;
+
+    // the time a connection has to send the token
+    private static final int TOKEN_TIMEOUT = 10000;
+
+    private JavaWorker() {
+        // no-op
+    }
+
+    /**
+     * @param args the idle timeout in seconds
+     * @throws IOException if the worker can't listen
+     */
+    public static void main(final String[] args) throws IOException {
+        final int idleTimeout = (int) Math.min(Integer.MAX_VALUE, Long.parseLong(args[0]) * 1000L);
+        if (idleTimeout <= 0) {
+            throw new IllegalArgumentException("The idle timeout must be greater than 0: " + args[0]);
+        }
+        final InputStream parent = System.in;
+        final byte[] token = readLine(parent);
+        final Thread parentWatcher = new Thread(
+                () -> {
+                    try {
+                        while (parent.read() >= 0) {
+                            // wait for the end of the stream
+                        }
+                    } catch (final IOException e) {
+                        // the build JVM is gone
+                    }
+                    Runtime.getRuntime().halt(0);
+                },
+                "exec-worker-parent-watcher");
+        parentWatcher.setDaemon(true);
+        parentWatcher.start();
+        System.setIn(new ByteArrayInputStream(new byte[0])); // the programs have no input
+
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(idleTimeout);
+            System.out.println(server.getLocalPort());
+            System.out.flush();
+            final Properties initialProperties = new Properties();
+            initialProperties.putAll(System.getProperties());
+            final Locale initialLocale = Locale.getDefault();
+            final Locale initialDisplayLocale = Locale.getDefault(Locale.Category.DISPLAY);
+            final Locale initialFormatLocale = Locale.getDefault(Locale.Category.FORMAT);
+            final TimeZone initialTimeZone = TimeZone.getDefault();
+            final Thread.UncaughtExceptionHandler initialHandler = Thread.getDefaultUncaughtExceptionHandler();
+            boolean reusable = true;
+            while (reusable) {
+                try (Socket socket = server.accept()) {
+                    reusable = serve(socket, token);
+                } catch (final SocketTimeoutException e) {
+                    return;
+                } catch (final IOException e) {
+                    // the build went away during the execution, wait for the next one
+                }
+                System.setProperties(copy(initialProperties));
+                Locale.setDefault(initialLocale);
+                Locale.setDefault(Locale.Category.DISPLAY, initialDisplayLocale);
+                Locale.setDefault(Locale.Category.FORMAT, initialFormatLocale);
+                TimeZone.setDefault(initialTimeZone);
+                Thread.setDefaultUncaughtExceptionHandler(initialHandler);
+                System.setIn(new ByteArrayInputStream(new byte[0]));
+            }
+        }
+    }
+
+    // returns whether the worker can serve the next execution
+    private static boolean serve(final Socket socket, final byte[] token) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        if (!authenticate(socket, in, token)) {
+            return true;
+        }
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        final URL[] classpath = new URL[in.readInt()];
+        for (int i = 0; i < classpath.length; i++) {
+            classpath[i] = new File(readString(in)).toURI().toURL();
+        }
+        final String mainClass = readString(in);
+        final String[] arguments = new String[in.readInt()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = readString(in);
+        }
+
+        try (URLClassLoader loader =
+                new URLClassLoader(classpath, ClassLoader.getSystemClassLoader().getParent())) {
+            final Method main = findMain(loader, mainClass);
+            if (main == null) { // run by a new JVM, reporting the errors like the java launcher does
+                out.writeByte(UNSUPPORTED);
+                out.flush();
+                return true;
+            }
+
+            final ThreadGroup group = new ThreadGroup(mainClass);
+            final PrintStream originalOut = System.out;
+            final PrintStream originalErr = System.err;
+            final PrintStream programOut = new PrintStream(new FrameOutputStream(out, OUT), true);
+            final PrintStream programErr = new PrintStream(new FrameOutputStream(out, ERR), true);
+            System.setOut(programOut);
+            System.setErr(programErr);
+            int exitCode;
+            try {
+                exitCode = run(loader, group, main, arguments);
+            } finally {
+                programOut.flush();
+                programErr.flush();
+                System.setOut(originalOut);
+                System.setErr(originalErr);
+            }
+            // the daemon threads of the program are still running
+            final boolean reusable = group.activeCount() == 0;
+            synchronized (out) {
+                out.writeByte(EXIT);
+                out.writeInt(exitCode);
+                out.writeBoolean(reusable);
+                out.flush();
+            }
+            return reusable;
+        }
+    }
+
+    // the public static void main(String[]) method of the class, without initializing it
+    private static Method findMain(final ClassLoader loader, final String mainClass) {
+        try {
+            final Method method = Class.forName(mainClass, false, loader).getMethod("main", String[].class);
+            return Modifier.isStatic(method.getModifiers()) && method.getReturnType() == void.class ? method : null;
+        } catch (final ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static boolean authenticate(final Socket socket, final DataInputStream in, final byte[] token)
+            throws IOException {
+        socket.setSoTimeout(TOKEN_TIMEOUT);
+        try {
+            if (in.readInt() != token.length) {
+                return false;
+            }
+            final byte[] received = new byte[token.length];
+            in.readFully(received);
+            return MessageDigest.isEqual(token, received);
+        } catch (final SocketTimeoutException e) { // not a timeout of the worker
+            return false;
+        } finally {
+            socket.setSoTimeout(0);
+        }
+    }
+
+    private static int run(
+            final ClassLoader loader, final ThreadGroup group, final Method method, final String[] arguments) {
+        final Throwable[] failure = new Throwable[1];
+        final Thread main = new Thread(
+                group,
+                () -> {
+                    try {
+                        method.setAccessible(true); // public method of a class which may not be public
+                        method.invoke(null, (Object) arguments);
+                    } catch (final InvocationTargetException e) {
+                        failure[0] = e.getCause() != null ? e.getCause() : e;
+                    } catch (final Throwable e) {
+                        failure[0] = e;
+                    }
+                },
+                "main");
+        main.setContextClassLoader(loader);
+        main.start();
+        try {
+            main.join();
+            joinNonDaemonThreads(group);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+        if (failure[0] != null) {
+            System.err.print("Exception in thread \"main\" ");
+            failure[0].printStackTrace();
+            return 1;
+        }
+        return 0;
+    }
+
+    // like the java launcher, the program ends once its non daemon threads are done
+    private static void joinNonDaemonThreads(final ThreadGroup group) throws InterruptedException {
+        while (true) {
+            final Thread[] threads = new Thread[group.activeCount() + 1];
+            final int count = group.enumerate(threads);
+            Thread nonDaemon = null;
+            for (int i = 0; i < count && nonDaemon == null; i++) {
+                if (!threads[i].isDaemon()) {
+                    nonDaemon = threads[i];
+                }
+            }
+            if (nonDaemon == null) {
+                return;
+            }
+            nonDaemon.join();
+        }
+    }
+
+    // reads the bytes of the line without buffering, the rest of the stream is watched for its end
+    private static byte[] readLine(final InputStream in) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new EOFException("The standard input of the worker is closed before the token");
+            }
+            line.write(b);
+        }
+        return line.toByteArray();
+    }
+
+    private static Properties copy(final Properties properties) {
+        final Properties copy = new Properties();
+        copy.putAll(properties);
+        return copy;
+    }
+
+    static String readString(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeString(final DataOutputStream out, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Sends what the program writes as frames of the response.
+     */
+    private static final class FrameOutputStream extends OutputStream {
+        private final DataOutputStream out;
+
+        private final byte type;
+
+        private FrameOutputStream(final DataOutputStream out, final byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            synchronized (out) {
+                out.writeByte(type);
+                out.writeInt(len);
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+    }
+}
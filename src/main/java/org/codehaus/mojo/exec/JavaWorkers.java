@@ -0,0 +1,386 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link JavaWorker} JVMs kept alive to run the {@code java} executions of the {@code exec} goal, so that
+ * invoking the same tool many times in a build only pays the startup and JIT warmup of the JVM once.
+ * <p>
+ * A worker is shared by the executions using the same {@code java} executable, JVM options, working directory and
+ * environment, and runs one execution at a time. The workers are shared by the builds of a long living JVM (mvnd)
+ * and exit by themselves once idle for their timeout.
+ *
+ * @since 3.6.4
+ */
+final class JavaWorkers {
+    // the options of the java launcher taking their value as next argument
+    private static final Set<String> OPTIONS_WITH_VALUE = new HashSet<>(Arrays.asList(
+            "--add-exports",
+            "--add-opens",
+            "--add-reads",
+            "--add-modules",
+            "--enable-native-access",
+            "--limit-modules",
+            "--patch-module",
+            "--upgrade-module-path"));
+
+    // the options selecting something else than a main class of the classpath
+    private static final Set<String> UNSUPPORTED_OPTIONS = new HashSet<>(Arrays.asList(
+            "-jar", "-m", "--module", "-p", "--module-path", "--source", "-version", "--version", "-help", "--help"));
+
+    private static final Map<String, Deque<Worker>> IDLE = new HashMap<>();
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private JavaWorkers() {
+        // no-op
+    }
+
+    /**
+     * @param arguments the arguments of the {@code java} executable
+     * @return the invocation or {@code null} if it can't run in a worker: no classpath, executable jar, module,
+     *         source file or argument files
+     */
+    static Invocation parse(final List<String> arguments) {
+        final List<String> jvmOptions = new ArrayList<>();
+        List<String> classpath = null;
+        for (int i = 0; i < arguments.size(); i++) {
+            final String argument = arguments.get(i);
+            if (argument.startsWith("@") || UNSUPPORTED_OPTIONS.contains(argument)) {
+                return null;
+            } else if ("-cp".equals(argument) || "-classpath".equals(argument) || "--class-path".equals(argument)) {
+                if (i + 1 == arguments.size()) {
+                    return null;
+                }
+                classpath = Arrays.asList(arguments.get(++i).split(File.pathSeparator));
+            } else if (OPTIONS_WITH_VALUE.contains(argument)) {
+                if (i + 1 == arguments.size()) {
+                    return null;
+                }
+                jvmOptions.add(argument);
+                jvmOptions.add(arguments.get(++i));
+            } else if (argument.startsWith("-")) {
+                jvmOptions.add(argument);
+            } else {
+                if (classpath == null) {
+                    return null;
+                }
+                return new Invocation(
+                        jvmOptions, classpath, argument, new ArrayList<>(arguments.subList(i + 1, arguments.size())));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs the invocation in an idle worker matching it, starting a new one if there is none.
+     *
+     * @param java the {@code java} executable
+     * @param workingDirectory the working directory of the worker
+     * @param environment the environment of the worker
+     * @param invocation the invocation to run
+     * @param idleTimeout the time in seconds a new worker waits for an execution before exiting
+     * @param out receives the standard output of the program
+     * @param err receives the error output of the program
+     * @return the exit code of the program, {@code null} if its main class has no {@code public static void
+     *         main(String[])} method and the program has to run in a new JVM
+     * @throws IOException if the worker can't be started or the communication with it failed
+     */
+    static Integer execute(
+            final String java,
+            final File workingDirectory,
+            final Map<String, String> environment,
+            final Invocation invocation,
+            final int idleTimeout,
+            final OutputStream out,
+            final OutputStream err)
+            throws IOException {
+        final List<Object> keyValues = new ArrayList<>();
+        keyValues.add(java);
+        keyValues.addAll(invocation.jvmOptions);
+        keyValues.add(workingDirectory.getAbsolutePath());
+        keyValues.add(new TreeMap<>(environment));
+        final String key = Caches.sha256(keyValues);
+
+        Worker worker = take(key);
+        if (worker == null) {
+            worker = Worker.start(java, workingDirectory, environment, invocation.jvmOptions, idleTimeout);
+        }
+        final Socket socket;
+        try {
+            socket = new Socket(InetAddress.getLoopbackAddress(), worker.port);
+        } catch (final ConnectException e) {
+            worker.process.destroy();
+            throw e;
+        }
+        try (Socket ignored = socket) {
+            final DataOutputStream request = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            JavaWorker.writeString(request, worker.token);
+            request.writeInt(invocation.classpath.size());
+            for (final String element : invocation.classpath) {
+                JavaWorker.writeString(request, element);
+            }
+            JavaWorker.writeString(request, invocation.mainClass);
+            request.writeInt(invocation.arguments.size());
+            for (final String argument : invocation.arguments) {
+                JavaWorker.writeString(request, argument);
+            }
+            request.flush();
+
+            final DataInputStream response = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            byte[] buffer = new byte[8192];
+            while (true) {
+                final int type = response.read();
+                if (type < 0) { // the program called System.exit
+                    return worker.exitValue();
+                }
+                if (type == JavaWorker.UNSUPPORTED) {
+                    release(key, worker);
+                    return null;
+                }
+                if (type == JavaWorker.EXIT) {
+                    final int exitCode = response.readInt();
+                    if (response.readBoolean()) {
+                        release(key, worker);
+                    } else { // the threads left by the program may still use the JVM state, the worker exits
+                        worker.process.destroy();
+                    }
+                    return exitCode;
+                }
+                final int length = response.readInt();
+                if (length > buffer.length) {
+                    buffer = new byte[Math.max(length, buffer.length * 2)];
+                }
+                response.readFully(buffer, 0, length);
+                (type == JavaWorker.OUT ? out : err).write(buffer, 0, length);
+            }
+        } catch (final EOFException e) { // the program called System.exit while writing
+            return worker.exitValue();
+        } catch (final IOException | RuntimeException e) {
+            worker.process.destroy();
+            throw e;
+        }
+    }
+
+    private static Worker take(final String key) {
+        synchronized (IDLE) {
+            final Deque<Worker> workers = IDLE.get(key);
+            while (workers != null && !workers.isEmpty()) {
+                final Worker worker = workers.pop();
+                if (worker.isUsable()) {
+                    return worker;
+                }
+                worker.process.destroy();
+            }
+            return null;
+        }
+    }
+
+    private static void release(final String key, final Worker worker) {
+        worker.lastUse = System.nanoTime();
+        synchronized (IDLE) {
+            IDLE.computeIfAbsent(key, k -> new ArrayDeque<>()).push(worker);
+        }
+    }
+
+    /**
+     * The main class, its arguments and classpath, and the JVM options of a {@code java} command line.
+     */
+    static final class Invocation {
+        private final List<String> jvmOptions;
+
+        private final List<String> classpath;
+
+        private final String mainClass;
+
+        private final List<String> arguments;
+
+        private Invocation(
+                final List<String> jvmOptions,
+                final List<String> classpath,
+                final String mainClass,
+                final List<String> arguments) {
+            this.jvmOptions = Collections.unmodifiableList(jvmOptions);
+            this.classpath = Collections.unmodifiableList(classpath);
+            this.mainClass = mainClass;
+            this.arguments = Collections.unmodifiableList(arguments);
+        }
+
+        List<String> getJvmOptions() {
+            return jvmOptions;
+        }
+
+        List<String> getClasspath() {
+            return classpath;
+        }
+
+        String getMainClass() {
+            return mainClass;
+        }
+
+        List<String> getArguments() {
+            return arguments;
+        }
+    }
+
+    private static final class Worker {
+        private final Process process;
+
+        private final int port;
+
+        private final String token;
+
+        private final long idleTimeout;
+
+        private volatile long lastUse = System.nanoTime();
+
+        private Worker(final Process process, final int port, final String token, final long idleTimeout) {
+            this.process = process;
+            this.port = port;
+            this.token = token;
+            this.idleTimeout = idleTimeout;
+        }
+
+        static Worker start(
+                final String java,
+                final File workingDirectory,
+                final Map<String, String> environment,
+                final List<String> jvmOptions,
+                final int idleTimeout)
+                throws IOException {
+            final List<String> command = new ArrayList<>();
+            command.add(java);
+            command.addAll(jvmOptions);
+            command.add("-cp");
+            command.add(pluginClasspath());
+            command.add(JavaWorker.class.getName());
+            command.add(Integer.toString(idleTimeout));
+            final ProcessBuilder builder = new ProcessBuilder(command)
+                    .directory(workingDirectory)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT);
+            builder.environment().clear();
+            builder.environment().putAll(environment);
+            final Process process = builder.start();
+
+            // only the build JVM knows the token, the standard input stays open to tell the worker it is alive
+            final byte[] random = new byte[32];
+            RANDOM.nextBytes(random);
+            final String token = Base64.getEncoder().encodeToString(random);
+            try {
+                final OutputStream stdin = process.getOutputStream();
+                stdin.write((token + "\n").getBytes(StandardCharsets.US_ASCII));
+                stdin.flush();
+            } catch (final IOException e) {
+                process.destroy();
+                throw e;
+            }
+
+            // the JVM options may print before the worker, then it only writes its port
+            final InputStream stdout = process.getInputStream();
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(stdout, Charset.defaultCharset()));
+            String line;
+            while ((line = reader.readLine()) != null && !line.matches("[0-9]+")) {
+                // skip
+            }
+            if (line == null) {
+                process.destroy();
+                throw new IOException("The worker JVM " + command + " exited with code " + waitFor(process));
+            }
+            final Thread drain = new Thread(
+                    () -> {
+                        try {
+                            while (reader.readLine() != null) {
+                                // the JVM may keep logging (-verbose for example)
+                            }
+                        } catch (final IOException e) {
+                            // the worker exited
+                        }
+                    },
+                    "exec-worker-stdout");
+            drain.setDaemon(true);
+            drain.start();
+            return new Worker(process, Integer.parseInt(line), token, TimeUnit.SECONDS.toNanos(idleTimeout));
+        }
+
+        // a worker close to its idle timeout may exit while the next execution connects to it
+        boolean isUsable() {
+            return process.isAlive() && System.nanoTime() - lastUse < idleTimeout / 2;
+        }
+
+        int exitValue() throws IOException {
+            return waitFor(process);
+        }
+
+        private static int waitFor(final Process process) throws IOException {
+            try {
+                return process.waitFor();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroy();
+                throw new IOException("Interrupted while waiting for the worker JVM", e);
+            }
+        }
+
+        private static String pluginClasspath() throws IOException {
+            try {
+                return new File(JavaWorker.class
+                                .getProtectionDomain()
+                                .getCodeSource()
+                                .getLocation()
+                                .toURI())
+                        .getAbsolutePath();
+            } catch (final URISyntaxException | RuntimeException e) {
+                throw new IOException("Can't locate the classes of the worker JVM", e);
+            }
+        }
+    }
+}
@@ -19,9 +19,13 @@ package org.codehaus.mojo.exec;
  * under the License.
  */
 
-import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.function.Consumer;
 
@@ -36,8 +40,11 @@ import java.util.function.Consumer;
 class LineRedirectOutputStream extends OutputStream {
 
     private final Consumer<String> linePrinter;
-    private final Charset charset;
-    private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final CharsetDecoder decoder;
+    // the bytes of the current line, reused across lines
+    private byte[] buffer = new byte[256];
+    private int size;
+    private CharBuffer chars = CharBuffer.allocate(256);
 
     public LineRedirectOutputStream(Consumer<String> linePrinter) {
         this(linePrinter, Charset.defaultCharset());
@@ -45,7 +52,11 @@ class LineRedirectOutputStream extends OutputStream {
 
     public LineRedirectOutputStream(Consumer<String> linePrinter, Charset charset) {
         this.linePrinter = Objects.requireNonNull(linePrinter);
-        this.charset = Objects.requireNonNull(charset);
+        // same replacement behavior than new String(bytes, charset)
+        this.decoder = Objects.requireNonNull(charset)
+                .newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
     }
 
     @Override
@@ -54,12 +65,31 @@ class LineRedirectOutputStream extends OutputStream {
             printAndReset();
             return;
         }
-        buffer.write(b);
+        ensureCapacity(size + 1);
+        buffer[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+        Objects.requireNonNull(b);
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        final int end = off + len;
+        int lineStart = off;
+        for (int i = off; i < end; i++) {
+            if (b[i] == '\n') {
+                append(b, lineStart, i - lineStart);
+                printAndReset();
+                lineStart = i + 1;
+            }
+        }
+        append(b, lineStart, end - lineStart);
     }
 
     @Override
     public void flush() {
-        if (buffer.size() > 0) {
+        if (size > 0) {
             printAndReset();
         }
     }
@@ -69,8 +99,31 @@ class LineRedirectOutputStream extends OutputStream {
         flush();
     }
 
+    private void append(final byte[] b, final int off, final int len) {
+        if (len > 0) {
+            ensureCapacity(size + len);
+            System.arraycopy(b, off, buffer, size, len);
+            size += len;
+        }
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+        }
+    }
+
     private void printAndReset() {
-        linePrinter.accept(new String(buffer.toByteArray(), charset));
-        buffer = new ByteArrayOutputStream();
+        final int maxChars = (int) Math.ceil(size * (double) decoder.maxCharsPerByte()) + 1;
+        if (chars.capacity() < maxChars) {
+            chars = CharBuffer.allocate(Math.max(maxChars, chars.capacity() * 2));
+        }
+        chars.clear();
+        decoder.reset();
+        decoder.decode(ByteBuffer.wrap(buffer, 0, size), chars, true);
+        decoder.flush(chars);
+        chars.flip();
+        size = 0;
+        linePrinter.accept(chars.toString());
     }
 }
@@ -0,0 +1,172 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes what the {@code exec:java} executions running concurrently write to {@link System#out} and
+ * {@link System#err} to the stream of their execution, so that their output lines are not interleaved.
+ * <p>
+ * While executions are registered, {@link System#out} and {@link System#err} are replaced by streams dispatching each
+ * write according to the context classloader of the writing thread, inherited by the threads of the program from its
+ * main thread. The lines of an execution are written as a whole, prefixed to tell the executions apart. Writes from
+ * other threads (Maven itself for example) go to the original streams.
+ *
+ * @since 3.6.4
+ */
+final class OutputDispatcher {
+    private static final Map<ClassLoader, Execution> EXECUTIONS = new ConcurrentHashMap<>();
+
+    private static PrintStream originalOut;
+
+    private static PrintStream originalErr;
+
+    private static PrintStream dispatchingOut;
+
+    private static PrintStream dispatchingErr;
+
+    private static int registrations;
+
+    private OutputDispatcher() {
+        // no-op
+    }
+
+    /**
+     * @param classLoader the classloader of the execution
+     * @param prefix the prefix of the output lines of the execution
+     * @return the registration to close once the execution is done, flushing its last partial lines
+     */
+    static Closeable register(final ClassLoader classLoader, final String prefix) {
+        synchronized (OutputDispatcher.class) {
+            if (registrations++ == 0) {
+                originalOut = System.out;
+                originalErr = System.err;
+                dispatchingOut = new PrintStream(new DispatchingOutputStream(originalOut, false), true);
+                dispatchingErr = new PrintStream(new DispatchingOutputStream(originalErr, true), true);
+                System.setOut(dispatchingOut);
+                System.setErr(dispatchingErr);
+            }
+            final Execution execution = new Execution(originalOut, originalErr, prefix);
+            EXECUTIONS.put(classLoader, execution);
+            return () -> unregister(classLoader, execution);
+        }
+    }
+
+    private static void unregister(final ClassLoader classLoader, final Execution execution) throws IOException {
+        synchronized (OutputDispatcher.class) {
+            dispatchingOut.flush();
+            dispatchingErr.flush();
+            EXECUTIONS.remove(classLoader, execution);
+            execution.close();
+            if (--registrations == 0) {
+                // unless replaced in the meantime by someone else
+                if (System.out == dispatchingOut) {
+                    System.setOut(originalOut);
+                }
+                if (System.err == dispatchingErr) {
+                    System.setErr(originalErr);
+                }
+                originalOut = null;
+                originalErr = null;
+                dispatchingOut = null;
+                dispatchingErr = null;
+            }
+        }
+    }
+
+    private static Execution current() {
+        for (ClassLoader loader = Thread.currentThread().getContextClassLoader();
+                loader != null;
+                loader = loader.getParent()) {
+            final Execution execution = EXECUTIONS.get(loader);
+            if (execution != null) {
+                return execution;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The output of an execution, written line by line to the original streams.
+     */
+    private static final class Execution {
+        private final OutputStream out;
+
+        private final OutputStream err;
+
+        private Execution(final PrintStream originalOut, final PrintStream originalErr, final String prefix) {
+            this.out = new LineRedirectOutputStream(line -> originalOut.println(prefix + line));
+            this.err = new LineRedirectOutputStream(line -> originalErr.println(prefix + line));
+        }
+
+        private void close() throws IOException {
+            synchronized (this) {
+                out.close();
+                err.close();
+            }
+        }
+    }
+
+    private static final class DispatchingOutputStream extends OutputStream {
+        private final PrintStream original;
+
+        private final boolean error;
+
+        private DispatchingOutputStream(final PrintStream original, final boolean error) {
+            this.original = original;
+            this.error = error;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            final Execution execution = current();
+            if (execution == null) {
+                original.write(b);
+                return;
+            }
+            synchronized (execution) { // the threads of the program share its streams
+                (error ? execution.err : execution.out).write(b);
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            final Execution execution = current();
+            if (execution == null) {
+                original.write(b, off, len);
+                return;
+            }
+            synchronized (execution) {
+                (error ? execution.err : execution.out).write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() {
+            original.flush();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable set of included and excluded name prefixes, matching a name in a single allocation free walk.
+ * A name matches when it starts with an included prefix and with no excluded prefix, whatever their lengths are.
+ *
+ * @since 3.6.4
+ */
+final class PackagePrefixTrie {
+    private final Node root = new Node();
+
+    /**
+     * @param included the prefixes to match, {@code null} elements are ignored
+     * @param excluded the prefixes to never match even if included, {@code null} elements are ignored
+     */
+    PackagePrefixTrie(Collection<String> included, Collection<String> excluded) {
+        if (included != null) {
+            for (String prefix : included) {
+                if (prefix != null) {
+                    insert(prefix).included = true;
+                }
+            }
+        }
+        if (excluded != null) {
+            for (String prefix : excluded) {
+                if (prefix != null) {
+                    Node node = root;
+                    node.excludes = true;
+                    for (int i = 0; i < prefix.length(); i++) {
+                        node = node.getOrCreate(prefix.charAt(i));
+                        node.excludes = true;
+                    }
+                    node.excluded = true;
+                }
+            }
+        }
+    }
+
+    boolean matches(final String name) {
+        Node node = root;
+        boolean included = false;
+        for (int i = 0; ; i++) {
+            if (node.excluded) {
+                return false;
+            }
+            included |= node.included;
+            if (included && !node.excludes) {
+                return true; // no longer excluded prefix can follow
+            }
+            if (i == name.length()) {
+                return included;
+            }
+            node = node.get(name.charAt(i));
+            if (node == null) {
+                return included;
+            }
+        }
+    }
+
+    private Node insert(final String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.getOrCreate(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private boolean included;
+        private boolean excluded;
+        private boolean excludes; // this node or one of its descendants is excluded
+
+        private Node get(final char c) {
+            final int index = Arrays.binarySearch(keys, c);
+            return index < 0 ? null : children[index];
+        }
+
+        private Node getOrCreate(final char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            index = -index - 1;
+            final char[] newKeys = new char[keys.length + 1];
+            final Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            newKeys[index] = c;
+            newChildren[index] = new Node();
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[index];
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An output stream writing a file which is rolled once it reaches a maximum size: {@code out.log} is renamed to
+ * {@code out.log.1} (or compressed to {@code out.log.1.gz}), the previous segments are shifted and the oldest ones
+ * beyond the maximum number of kept segments are deleted. The stream is thread safe so that the output and error
+ * pumps of a process can share it.
+ *
+ * @since 3.6.4
+ */
+final class RollingFileOutputStream extends OutputStream {
+    private final Path file;
+
+    private final long maxSize;
+
+    private final int maxFiles;
+
+    private final boolean compress;
+
+    private OutputStream out;
+
+    private long size;
+
+    /**
+     * @param file the written file, truncated
+     * @param maxSize the size triggering the roll of the file, {@code 0} to never roll it
+     * @param maxFiles the number of rolled segments to keep
+     * @param compress whether to gzip the rolled segments
+     * @throws IOException if the file can't be created
+     */
+    RollingFileOutputStream(final File file, final long maxSize, final int maxFiles, final boolean compress)
+            throws IOException {
+        this.file = file.toPath();
+        this.maxSize = maxSize;
+        this.maxFiles = Math.max(0, maxFiles);
+        this.compress = compress;
+        this.out = new FileOutputStream(file);
+    }
+
+    @Override
+    public synchronized void write(final int b) throws IOException {
+        rollIfNeeded(1);
+        out.write(b);
+        size++;
+    }
+
+    @Override
+    public synchronized void write(final byte[] b, final int off, final int len) throws IOException {
+        rollIfNeeded(len);
+        out.write(b, off, len);
+        size += len;
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    private void rollIfNeeded(final int len) throws IOException {
+        if (maxSize <= 0 || size == 0 || size + len <= maxSize) {
+            return;
+        }
+        out.close();
+        if (maxFiles > 0) {
+            Files.deleteIfExists(segment(maxFiles));
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                final Path segment = segment(i);
+                if (Files.exists(segment)) {
+                    Files.move(segment, segment(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            if (compress) {
+                try (InputStream in = Files.newInputStream(file);
+                        OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(segment(1)))) {
+                    final byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = in.read(buffer)) >= 0) {
+                        gzip.write(buffer, 0, read);
+                    }
+                }
+            } else {
+                Files.move(file, segment(1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        out = new FileOutputStream(file.toFile());
+        size = 0;
+    }
+
+    private Path segment(final int index) {
+        return file.resolveSibling(file.getFileName() + "." + index + (compress ? ".gz" : ""));
+    }
+}
@@ -0,0 +1,85 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Holds the state shared by the executions of this plugin within one {@link MavenSession}.
+ * The state is released together with the session, so a long living JVM (embedded Maven, mvnd) does not leak it
+ * from one build to the next one. Since the end of a session is not notified to the plugins, the {@link Closeable}
+ * states of the previous sessions are closed when a new session starts, instead of keeping their resources (open
+ * jars for example) until they are garbage collected.
+ *
+ * @since 3.6.4
+ */
+final class SessionState {
+    private static final Map<MavenSession, Map<Class<?>, Object>> STATES = new WeakHashMap<>();
+
+    private SessionState() {
+        // no-op
+    }
+
+    /**
+     * Get the instance of the given type bound to the session, creating it if needed.
+     *
+     * @param session the current session, if {@code null} a new unshared instance is returned
+     * @param type the type of state to lookup
+     * @param factory creates the state the first time it is requested for the session
+     * @param <T> the type of state
+     * @return the state bound to the session
+     */
+    static <T> T get(final MavenSession session, final Class<T> type, final Supplier<T> factory) {
+        if (session == null) {
+            return factory.get();
+        }
+        synchronized (STATES) {
+            Map<Class<?>, Object> states = STATES.get(session);
+            if (states == null) {
+                closeStates();
+                states = new HashMap<>();
+                STATES.put(session, states);
+            }
+            return type.cast(states.computeIfAbsent(type, t -> factory.get()));
+        }
+    }
+
+    // the closed states must stay usable, in case their session is still running (nested builds)
+    private static void closeStates() {
+        for (final Map<Class<?>, Object> states : STATES.values()) {
+            for (final Object state : states.values()) {
+                if (state instanceof Closeable) {
+                    try {
+                        ((Closeable) state).close();
+                    } catch (final IOException e) {
+                        // the resources are released once garbage collected
+                    }
+                }
+            }
+        }
+    }
+}
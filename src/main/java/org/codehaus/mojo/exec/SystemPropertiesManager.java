@@ -0,0 +1,130 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Properties;
+
+/**
+ * Will be used by {@link BlockExitTransformer} to replace the system properties accessors ({@link System},
+ * {@link Boolean#getBoolean(String)}, {@link Integer#getInteger(String)}, {@link Long#getLong(String)}) by this
+ * implementation, reading and writing the properties of the execution instead of the ones of the JVM.
+ * <p>
+ * Each execution classloader defines its own copy of this class, so the properties are isolated per classloader. It
+ * only depends on the JDK for that reason.
+ *
+ * @since 3.6.4
+ */
+public final class SystemPropertiesManager {
+    private static volatile Properties properties = System.getProperties();
+
+    private SystemPropertiesManager() {
+        // no-op
+    }
+
+    public static Properties getProperties() {
+        return properties;
+    }
+
+    /**
+     * @param props the new properties of the execution, {@code null} to reset them to the ones of the JVM
+     */
+    public static void setProperties(final Properties props) {
+        if (props == null) {
+            final Properties copy = new Properties();
+            copy.putAll(System.getProperties());
+            properties = copy;
+        } else {
+            properties = props;
+        }
+    }
+
+    public static String getProperty(final String key) {
+        checkKey(key);
+        return properties.getProperty(key);
+    }
+
+    public static String getProperty(final String key, final String def) {
+        checkKey(key);
+        return properties.getProperty(key, def);
+    }
+
+    public static String setProperty(final String key, final String value) {
+        checkKey(key);
+        return (String) properties.setProperty(key, value);
+    }
+
+    public static String clearProperty(final String key) {
+        checkKey(key);
+        return (String) properties.remove(key);
+    }
+
+    public static boolean getBoolean(final String name) {
+        return name != null && !name.isEmpty() && Boolean.parseBoolean(properties.getProperty(name));
+    }
+
+    public static Integer getInteger(final String name) {
+        return getInteger(name, null);
+    }
+
+    public static Integer getInteger(final String name, final int val) {
+        return getInteger(name, Integer.valueOf(val));
+    }
+
+    public static Integer getInteger(final String name, final Integer val) {
+        final String value = name == null || name.isEmpty() ? null : properties.getProperty(name);
+        if (value != null) {
+            try {
+                return Integer.decode(value);
+            } catch (final NumberFormatException e) {
+                // same as Integer.getInteger
+            }
+        }
+        return val;
+    }
+
+    public static Long getLong(final String name) {
+        return getLong(name, null);
+    }
+
+    public static Long getLong(final String name, final long val) {
+        return getLong(name, Long.valueOf(val));
+    }
+
+    public static Long getLong(final String name, final Long val) {
+        final String value = name == null || name.isEmpty() ? null : properties.getProperty(name);
+        if (value != null) {
+            try {
+                return Long.decode(value);
+            } catch (final NumberFormatException e) {
+                // same as Long.getLong
+            }
+        }
+        return val;
+    }
+
+    private static void checkKey(final String key) {
+        if (key == null) {
+            throw new NullPointerException("key can't be null");
+        }
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("key can't be empty");
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * A content addressed store of transformed bytecode: entries are keyed by a hash of the original bytecode and of the
+ * version of the transformation, so they never need to be invalidated. The classes whose transformation depends on
+ * other classes of the classpath (frames computed from the class hierarchy) are not stored.
+ *
+ * @since 3.6.4
+ */
+class TransformedClassCache {
+    private final Path directory;
+
+    private final String version;
+
+    private final Log logger;
+
+    TransformedClassCache(Path directory, String version, Log logger) {
+        this.directory = directory;
+        this.version = version;
+        this.logger = logger;
+    }
+
+    /**
+     * @param original the bytecode before transformation
+     * @return the key of the transformed bytecode
+     */
+    String key(byte[] original) {
+        return Caches.sha256(version.getBytes(StandardCharsets.UTF_8), original);
+    }
+
+    /**
+     * @param key the key of the transformed bytecode
+     * @return the transformed bytecode or {@code null} if not yet cached
+     */
+    byte[] get(String key) {
+        Path file = file(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            debug("Can't read cached class " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the transformed bytecode, failures are ignored since the cache is only an optimization.
+     *
+     * @param key the key of the transformed bytecode
+     * @param transformed the transformed bytecode
+     */
+    void put(String key, byte[] transformed) {
+        Path file = file(key);
+        try {
+            Caches.writeAtomically(file, transformed);
+        } catch (IOException e) {
+            debug("Can't cache class " + file, e);
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".class");
+    }
+
+    private void debug(String message, IOException e) {
+        if (logger != null && logger.isDebugEnabled()) {
+            logger.debug(message + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -24,16 +24,27 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.instrument.IllegalClassFormatException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.JarURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.net.URLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.CodeSigner;
+import java.security.CodeSource;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
 
 import org.apache.maven.plugin.logging.Log;
 import org.codehaus.plexus.util.IOUtil;
@@ -51,6 +62,10 @@ class URLClassLoaderBuilder {
     private Collection<Path> paths;
     private Collection<String> exclusions;
     private boolean withTransformers;
+    private boolean withIsolatedSystemProperties;
+    private Path transformedClassesCache;
+    private boolean withClasspathIndex;
+    private Path classpathIndexCache;
 
     private URLClassLoaderBuilder() {}
 
@@ -88,8 +103,47 @@ class URLClassLoaderBuilder {
         return this;
     }
 
+    URLClassLoaderBuilder withIsolatedSystemProperties(boolean withIsolatedSystemProperties) {
+        this.withIsolatedSystemProperties = withIsolatedSystemProperties;
+        return this;
+    }
+
+    URLClassLoaderBuilder setTransformedClassesCache(Path transformedClassesCache) {
+        this.transformedClassesCache = transformedClassesCache;
+        return this;
+    }
+
+    URLClassLoaderBuilder withClasspathIndex(boolean withClasspathIndex) {
+        this.withClasspathIndex = withClasspathIndex;
+        return this;
+    }
+
+    URLClassLoaderBuilder setClasspathIndexCache(Path classpathIndexCache) {
+        this.classpathIndexCache = classpathIndexCache;
+        return this;
+    }
+
+    Collection<Path> getPaths() {
+        return paths;
+    }
+
+    /**
+     * @return the values identifying the classloader this builder creates, used by {@link ClassLoaderCache}
+     */
+    List<Object> cacheKey() {
+        return asList(
+                new ArrayList<>(paths),
+                exclusions == null ? null : new ArrayList<>(exclusions),
+                forcedJvmPackages == null ? null : new ArrayList<>(forcedJvmPackages),
+                excludedJvmPackages == null ? null : new ArrayList<>(excludedJvmPackages),
+                withTransformers,
+                withIsolatedSystemProperties,
+                withClasspathIndex);
+    }
+
     URLClassLoader build() throws IOException {
         List<URL> urls = new ArrayList<>(paths.size());
+        List<Path> elements = new ArrayList<>(paths.size());
 
         for (Path dependency : paths) {
             if (exclusions != null
@@ -101,6 +155,7 @@ class URLClassLoaderBuilder {
             }
             try {
                 urls.add(dependency.toUri().toURL());
+                elements.add(dependency);
             } catch (MalformedURLException e) {
                 throw new IOException("Error during setting up classpath", e);
             }
@@ -108,11 +163,23 @@ class URLClassLoaderBuilder {
 
         URL[] urlsArray = urls.toArray(new URL[0]);
         BlockExitTransformer transformer = null;
-        if (withTransformers) {
-            transformer = new BlockExitTransformer(new URLClassLoader(urlsArray), logger);
+        if (withTransformers || withIsolatedSystemProperties) {
+            TransformedClassCache cache = transformedClassesCache == null
+                    ? null
+                    : new TransformedClassCache(
+                            transformedClassesCache,
+                            BlockExitTransformer.version(withTransformers, withIsolatedSystemProperties),
+                            logger);
+            transformer = new BlockExitTransformer(
+                    new URLClassLoader(urlsArray), logger, cache, withTransformers, withIsolatedSystemProperties);
+        }
+
+        ClasspathIndex index = null;
+        if (withClasspathIndex) {
+            index = ClasspathIndex.build(elements, classpathIndexCache, logger);
         }
 
-        return new ExecJavaClassLoader(urlsArray, transformer, forcedJvmPackages, excludedJvmPackages);
+        return new ExecJavaClassLoader(urlsArray, transformer, index, forcedJvmPackages, excludedJvmPackages);
     }
 
     // child first strategy
@@ -125,26 +192,105 @@ class URLClassLoaderBuilder {
             }
         }
 
+        // not all jvm classes, for ex "javax" can be overridden so don't list it them all here (javax.resource for ex)
+        private static final List<String> JVM_PACKAGES = asList(
+                "java.",
+                "javax.xml.",
+                "sun.",
+                "jdk.",
+                "oracle.",
+                "javafx.",
+                "netscape.",
+                "org.w3c.dom.",
+                "org.omg.",
+                "org.xml.sax.",
+                "org.ietf.jgss.",
+                "org.jcp.xml.dsig.internal.",
+                "com.oracle.",
+                "com.sun.accessibility.",
+                "com.sun.activation.",
+                "com.sun.awt.",
+                "com.sun.beans.",
+                "com.sun.corba.se.",
+                "com.sun.demo.jvmti.",
+                "com.sun.image.codec.jpeg.",
+                "com.sun.imageio.",
+                "com.sun.istack.internal.",
+                "com.sun.java.",
+                "com.sun.java_cup.",
+                "com.sun.jmx.",
+                "com.sun.jndi.",
+                "com.sun.management.",
+                "com.sun.media.sound.",
+                "com.sun.naming.internal.",
+                "com.sun.net.",
+                "com.sun.nio.",
+                "com.sun.org.",
+                "com.sun.rmi.rmid.",
+                "com.sun.rowset.",
+                "com.sun.security.",
+                "com.sun.swing.",
+                "com.sun.tracing.",
+                "com.sun.xml.internal.");
+
+        // bound of the names of classes known to be missing, frameworks probing optional classes hit it a lot
+        private static final int MAX_MISSING_CLASSES = 10_000;
+        // bound of the names of resources whose lookup result is kept, ServiceLoader lookups are the usual ones
+        private static final int MAX_CACHED_RESOURCES = 1_000;
+        // ClassLoader.getDefinedPackage (Java 9+) only looks at this loader, getPackage also searches the parents
+        private static final Method GET_DEFINED_PACKAGE = getDefinedPackageMethod();
+
         private final String jre;
         private final BlockExitTransformer transformer;
-        private final List<String> forcedJvmPackages;
-        private final List<String> excludedJvmPackages;
+        private final PackagePrefixTrie directJvmClasses;
+        private final Set<String> missingClasses = ConcurrentHashMap.newKeySet();
+        // classification of the parent resource locations (jar or directory), keyed by their base url
+        private final Map<String, Boolean> jvmLocations = new ConcurrentHashMap<>();
+        // lookup results only made of jar entries, which can't change while the loader is used
+        private final Map<String, List<URL>> cachedResources = new ConcurrentHashMap<>();
+        private final boolean onlyJars;
+        private final URL[] elements;
+        private final URLClassLoader[] elementLoaders;
+        private volatile ClasspathIndex index;
 
         public ExecJavaClassLoader(
                 URL[] urls,
                 BlockExitTransformer transformer,
+                ClasspathIndex index,
                 List<String> forcedJvmPackages,
                 List<String> excludedJvmPackages) {
             super(urls);
             this.jre = getJre();
             this.transformer = transformer;
-            this.forcedJvmPackages = forcedJvmPackages;
-            this.excludedJvmPackages = excludedJvmPackages;
+            this.index = index;
+            this.elements = urls;
+            this.onlyJars = Stream.of(urls).allMatch(url -> url.getPath().endsWith(".jar"));
+            this.elementLoaders = new URLClassLoader[index == null ? 0 : urls.length];
+            for (int i = 0; i < elementLoaders.length; i++) {
+                // no parent, only used to look up the resources of one classpath element
+                elementLoaders[i] = new URLClassLoader(new URL[] {urls[i]}, null);
+            }
+            List<String> jvmPackages = new ArrayList<>(JVM_PACKAGES);
+            if (forcedJvmPackages != null) {
+                jvmPackages.addAll(forcedJvmPackages);
+            }
+            this.directJvmClasses = new PackagePrefixTrie(jvmPackages, excludedJvmPackages);
+        }
+
+        @Override
+        protected void addURL(URL url) {
+            super.addURL(url);
+            index = null; // the new element is not indexed, search the whole classpath again
+            missingClasses.clear();
+            cachedResources.clear();
         }
 
         @Override
         public void close() throws IOException {
             super.close();
+            for (URLClassLoader elementLoader : elementLoaders) {
+                elementLoader.close();
+            }
             if (transformer != null) {
                 transformer.close();
             }
@@ -160,6 +306,12 @@ class URLClassLoaderBuilder {
                 return SystemExitManager.class;
             }
 
+            if ("org.codehaus.mojo.exec.SystemPropertiesManager".equals(name)
+                    && transformer != null
+                    && transformer.isolatesSystemProperties()) {
+                return defineSystemPropertiesManager(name);
+            }
+
             synchronized (getClassLoadingLock(name)) {
                 Class<?> clazz;
 
@@ -181,9 +333,14 @@ class URLClassLoaderBuilder {
                     return clazz;
                 }
 
+                // already looked up without success, the classpath did not change since then
+                if (missingClasses.contains(name)) {
+                    throw new MissingClassException(name);
+                }
+
                 // look for it in this classloader
                 try {
-                    clazz = transformer != null ? doFindClass(name) : super.findClass(name);
+                    clazz = transformer != null || index != null ? doFindClass(name) : super.findClass(name);
                     if (clazz != null) {
                         if (postLoad(resolve, clazz)) {
                             return clazz;
@@ -208,47 +365,197 @@ class URLClassLoaderBuilder {
                     // no-op
                 }
 
+                if (missingClasses.size() >= MAX_MISSING_CLASSES) {
+                    missingClasses.clear();
+                }
+                missingClasses.add(name);
                 throw new ClassNotFoundException(name);
             }
         }
 
+        // a copy per classloader, holding the system properties of the execution
+        private Class<?> defineSystemPropertiesManager(final String name) throws ClassNotFoundException {
+            synchronized (getClassLoadingLock(name)) {
+                final Class<?> loaded = findLoadedClass(name);
+                if (loaded != null) {
+                    return loaded;
+                }
+                try (InputStream inputStream =
+                        SystemPropertiesManager.class.getResourceAsStream("SystemPropertiesManager.class")) {
+                    if (inputStream == null) {
+                        throw new ClassNotFoundException(name);
+                    }
+                    final byte[] bytecode = IOUtil.toByteArray(inputStream);
+                    return super.defineClass(name, bytecode, 0, bytecode.length);
+                } catch (final ClassFormatError | IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+            }
+        }
+
         private Class<?> doFindClass(final String name) throws ClassNotFoundException {
             final String resource = name.replace('.', '/') + ".class";
-            final URL url = super.findResource(resource);
+            final ClasspathIndex currentIndex = index;
+            URL url = null;
+            URL codeBase = null;
+            if (currentIndex == null) {
+                url = super.findResource(resource);
+            } else {
+                for (int element : currentIndex.candidates(resource)) {
+                    url = elementLoaders[element].findResource(resource);
+                    if (url != null) {
+                        codeBase = elements[element];
+                        break;
+                    }
+                }
+            }
             if (url == null) {
                 throw new ClassNotFoundException(name);
             }
 
-            try (final InputStream inputStream = url.openStream()) {
-                final byte[] raw = IOUtil.toByteArray(inputStream);
-                final byte[] res = transformer.transform(null, name, null, null, raw);
+            try {
+                // read as URLClassLoader does, to keep the manifest attributes of the package and the signers
+                final URLConnection connection = url.openConnection();
+                final byte[] raw;
+                try (InputStream inputStream = connection.getInputStream()) {
+                    raw = IOUtil.toByteArray(inputStream);
+                }
+                Manifest manifest = null;
+                CodeSigner[] signers = null;
+                if (connection instanceof JarURLConnection) {
+                    final JarURLConnection jarConnection = (JarURLConnection) connection;
+                    manifest = jarConnection.getManifest();
+                    signers = jarConnection.getJarEntry().getCodeSigners();
+                    if (codeBase == null) {
+                        codeBase = jarConnection.getJarFileURL();
+                    }
+                } else if (codeBase == null) {
+                    final String location = url.toString();
+                    codeBase = new URL(location.substring(0, location.length() - resource.length()));
+                }
+                final int lastDot = name.lastIndexOf('.');
+                if (lastDot > 0) {
+                    definePackageIfNeeded(name.substring(0, lastDot), manifest, codeBase);
+                }
+
+                final byte[] res = transformer == null ? null : transformer.transform(null, name, null, null, raw);
                 final byte[] bin = res == null ? raw : res;
-                return super.defineClass(name, bin, 0, bin.length);
+                return super.defineClass(name, bin, 0, bin.length, new CodeSource(codeBase, signers));
             } catch (final ClassFormatError | IOException | IllegalClassFormatException var4) {
                 throw new ClassNotFoundException(name, var4);
             }
         }
 
+        private void definePackageIfNeeded(final String packageName, final Manifest manifest, final URL codeBase) {
+            if (getDefinedPackage(packageName) != null) {
+                return;
+            }
+            try {
+                if (manifest == null) {
+                    definePackage(packageName, null, null, null, null, null, null, null);
+                } else {
+                    definePackage(packageName, manifest, codeBase);
+                }
+            } catch (final IllegalArgumentException e) {
+                // defined concurrently by another thread
+            }
+        }
+
+        private Package getDefinedPackage(final String packageName) {
+            if (GET_DEFINED_PACKAGE == null) { // Java 8, same lookup as URLClassLoader
+                return getPackage(packageName);
+            }
+            try {
+                return (Package) GET_DEFINED_PACKAGE.invoke(this, packageName);
+            } catch (final IllegalAccessException | InvocationTargetException e) {
+                return getPackage(packageName);
+            }
+        }
+
+        private static Method getDefinedPackageMethod() {
+            try {
+                return ClassLoader.class.getMethod("getDefinedPackage", String.class);
+            } catch (final NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public URL findResource(String name) {
+            final ClasspathIndex currentIndex = index;
+            if (currentIndex == null) {
+                return super.findResource(name);
+            }
+            for (int element : currentIndex.candidates(name)) {
+                final URL url = elementLoaders[element].findResource(name);
+                if (url != null) {
+                    return url;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Enumeration<URL> findResources(String name) throws IOException {
+            final ClasspathIndex currentIndex = index;
+            if (currentIndex == null) {
+                return super.findResources(name);
+            }
+            final List<URL> urls = new ArrayList<>();
+            for (int element : currentIndex.candidates(name)) {
+                final URL url = elementLoaders[element].findResource(name);
+                if (url != null) {
+                    urls.add(url);
+                }
+            }
+            return Collections.enumeration(urls);
+        }
+
         @Override
         public Enumeration<URL> getResources(String name) throws IOException {
+            final List<URL> cached = cachedResources.get(name);
+            if (cached != null) {
+                return Collections.enumeration(cached);
+            }
+
+            final List<URL> resources = new ArrayList<>();
             final Enumeration<URL> selfResources = findResources(name);
+            while (selfResources.hasMoreElements()) {
+                resources.add(selfResources.nextElement());
+            }
             final Enumeration<URL> parentResources = getParent().getResources(name);
-            if (!parentResources.hasMoreElements()) {
-                return selfResources;
+            while (parentResources.hasMoreElements()) {
+                final URL resource = parentResources.nextElement();
+                if (isInJvm(resource, name)) {
+                    resources.add(resource);
+                }
             }
-            if (!selfResources.hasMoreElements()) {
-                return new FilteringUrlEnum(parentResources);
+
+            if (resources.isEmpty() ? onlyJars : resources.stream().allMatch(url -> "jar".equals(url.getProtocol()))) {
+                if (cachedResources.size() >= MAX_CACHED_RESOURCES) {
+                    cachedResources.clear();
+                }
+                cachedResources.put(name, Collections.unmodifiableList(resources));
             }
-            return new ChainedEnumerations(
-                    asList(selfResources, new FilteringUrlEnum(parentResources)).iterator());
+            return Collections.enumeration(resources);
+        }
+
+        private boolean isInJvm(final URL resource, final String name) {
+            return jvmLocations.computeIfAbsent(baseLocation(resource, name), k -> {
+                final Path path = toPath(resource);
+                return path != null
+                        && path.normalize().toAbsolutePath().toString().startsWith(jre);
+            });
         }
 
-        private boolean isInJvm(URL resource) {
-            final Path path = toPath(resource);
-            if (path == null) {
-                return false;
+        // the jar or directory containing the resource, all its resources share the same classification
+        private static String baseLocation(final URL resource, final String name) {
+            final String location = resource.toExternalForm();
+            final int separator = location.indexOf("!/");
+            if (separator > 0) {
+                return location.substring(0, separator);
             }
-            return path.normalize().toAbsolutePath().toString().startsWith(jre);
+            return location.endsWith(name) ? location.substring(0, location.length() - name.length()) : location;
         }
 
         private String getJre() {
@@ -337,150 +644,21 @@ class URLClassLoaderBuilder {
             return false;
         }
 
-        // not all jvm classes, for ex "javax" can be overridden so don't list it them all here (javax.resource for ex)
         private boolean isDirectJvmClass(final String name) {
-            if (excludedJvmPackages != null && excludedJvmPackages.stream().anyMatch(name::startsWith)) {
-                return false;
-            }
-            if (name.startsWith("java.")) {
-                return true;
-            } else if (name.startsWith("javax.")) {
-                final String sub = name.substring("javax.".length());
-                if (sub.startsWith("xml.")) {
-                    return true;
-                }
-            } else if (name.startsWith("sun.")) {
-                return true;
-            } else if (name.startsWith("jdk.")) {
-                return true;
-            } else if (name.startsWith("oracle.")) {
-                return true;
-            } else if (name.startsWith("javafx.")) {
-                return true;
-            } else if (name.startsWith("netscape.")) {
-                return true;
-            } else if (name.startsWith("org.")) {
-                final String sub = name.substring("org.".length());
-                if (sub.startsWith("w3c.dom.")) {
-                    return true;
-                } else if (sub.startsWith("omg.")) {
-                    return true;
-                } else if (sub.startsWith("xml.sax.")) {
-                    return true;
-                } else if (sub.startsWith("ietf.jgss.")) {
-                    return true;
-                } else if (sub.startsWith("jcp.xml.dsig.internal.")) {
-                    return true;
-                }
-            } else if (name.startsWith("com.")) {
-                final String sub = name.substring("com.".length());
-                if (sub.startsWith("oracle.")) {
-                    return true;
-                } else if (sub.startsWith("sun.")) {
-                    final String subSun = sub.substring("sun.".length());
-                    if (subSun.startsWith("accessibility.")) {
-                        return true;
-                    } else if (subSun.startsWith("activation.")) {
-                        return true;
-                    } else if (subSun.startsWith("awt.")) {
-                        return true;
-                    } else if (subSun.startsWith("beans.")) {
-                        return true;
-                    } else if (subSun.startsWith("corba.se.")) {
-                        return true;
-                    } else if (subSun.startsWith("demo.jvmti.")) {
-                        return true;
-                    } else if (subSun.startsWith("image.codec.jpeg.")) {
-                        return true;
-                    } else if (subSun.startsWith("imageio.")) {
-                        return true;
-                    } else if (subSun.startsWith("istack.internal.")) {
-                        return true;
-                    } else if (subSun.startsWith("java.")) {
-                        return true;
-                    } else if (subSun.startsWith("java_cup.")) {
-                        return true;
-                    } else if (subSun.startsWith("jmx.")) {
-                        return true;
-                    } else if (subSun.startsWith("jndi.")) {
-                        return true;
-                    } else if (subSun.startsWith("management.")) {
-                        return true;
-                    } else if (subSun.startsWith("media.sound.")) {
-                        return true;
-                    } else if (subSun.startsWith("naming.internal.")) {
-                        return true;
-                    } else if (subSun.startsWith("net.")) {
-                        return true;
-                    } else if (subSun.startsWith("nio.")) {
-                        return true;
-                    } else if (subSun.startsWith("org.")) {
-                        return true;
-                    } else if (subSun.startsWith("rmi.rmid.")) {
-                        return true;
-                    } else if (subSun.startsWith("rowset.")) {
-                        return true;
-                    } else if (subSun.startsWith("security.")) {
-                        return true;
-                    } else if (subSun.startsWith("swing.")) {
-                        return true;
-                    } else if (subSun.startsWith("tracing.")) {
-                        return true;
-                    } else if (subSun.startsWith("xml.internal.")) {
-                        return true;
-                    }
-                }
-            }
-            return forcedJvmPackages != null && forcedJvmPackages.stream().anyMatch(name::startsWith);
-        }
-
-        private class FilteringUrlEnum implements Enumeration<URL> {
-            private final Enumeration<URL> delegate;
-            private URL next;
-
-            private FilteringUrlEnum(Enumeration<URL> delegate) {
-                this.delegate = delegate;
-            }
-
-            @Override
-            public boolean hasMoreElements() {
-                while (delegate.hasMoreElements()) {
-                    next = delegate.nextElement();
-                    if (isInJvm(next)) {
-                        return true;
-                    }
-                }
-                return false;
-            }
-
-            @Override
-            public URL nextElement() {
-                return next;
-            }
+            return directJvmClasses.matches(name);
         }
 
-        private static class ChainedEnumerations implements Enumeration<URL> {
-            private final Iterator<Enumeration<URL>> enumerations;
-            private Enumeration<URL> current;
-
-            private ChainedEnumerations(Iterator<Enumeration<URL>> enumerations) {
-                this.enumerations = enumerations;
-            }
-
-            @Override
-            public boolean hasMoreElements() {
-                if (current == null || !current.hasMoreElements()) {
-                    if (!enumerations.hasNext()) {
-                        return false;
-                    }
-                    current = enumerations.next();
-                }
-                return current.hasMoreElements();
+        /**
+         * Thrown for the classes already known to be missing, without the cost of filling a stack trace again.
+         */
+        private static class MissingClassException extends ClassNotFoundException {
+            private MissingClassException(String name) {
+                super(name);
             }
 
             @Override
-            public URL nextElement() {
-                return current.nextElement();
+            public synchronized Throwable fillInStackTrace() {
+                return this;
             }
         }
     }
@@ -0,0 +1,48 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * Creates the virtual threads of {@code exec:java}.
+ * This is the Java 21+ implementation.
+ *
+ * @since 3.6.4
+ */
+final class VirtualThreads {
+    private VirtualThreads() {
+        // no-op
+    }
+
+    /**
+     * @return {@code true} if the JVM supports virtual threads
+     */
+    static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * @param runnable the code run by the thread
+     * @param name the name of the thread
+     * @return a new unstarted virtual thread
+     */
+    static Thread newThread(final Runnable runnable, final String name) {
+        return Thread.ofVirtual().name(name).unstarted(runnable);
+    }
+}
@@ -0,0 +1,79 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AsyncLineSinkTest {
+
+    @Test
+    void blockKeepsAllLinesInOrder() {
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        try (AsyncLineSink sink = new AsyncLineSink(2, AsyncLineSink.Overflow.BLOCK, null, new SystemStreamLog())) {
+            Consumer<String> out = sink.redirect(lines::add);
+            Consumer<String> err = sink.redirect(line -> lines.add("err: " + line));
+            out.accept("a");
+            err.accept("b");
+            out.accept("c");
+            out.accept("d");
+        }
+        assertEquals(Arrays.asList("a", "err: b", "c", "d"), lines);
+    }
+
+    @Test
+    void spillWritesOverflowToFile(@TempDir Path dir) throws IOException, InterruptedException {
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch logging = new CountDownLatch(1);
+        CountDownLatch slowLogger = new CountDownLatch(1);
+        Path spill = dir.resolve("out/spill.log");
+        try (AsyncLineSink sink = new AsyncLineSink(1, AsyncLineSink.Overflow.SPILL, spill, new SystemStreamLog())) {
+            Consumer<String> out = sink.redirect(line -> {
+                logging.countDown();
+                try {
+                    slowLogger.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                lines.add(line);
+            });
+            out.accept("first"); // taken by the logging thread, blocked
+            logging.await();
+            out.accept("second"); // buffered
+            out.accept("third"); // spilled
+            slowLogger.countDown();
+        }
+        assertEquals(Arrays.asList("first", "second"), lines);
+        assertEquals(Collections.singletonList("third"), Files.readAllLines(spill));
+    }
+}
@@ -0,0 +1,145 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.codehaus.plexus.util.IOUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockExitTransformerTest {
+
+    @Test
+    void classWithoutExitIsNotTransformed() throws Exception {
+        byte[] bytecode = bytecode(NoExit.class);
+        assertFalse(BlockExitTransformer.referencesSystemExit(new ClassReader(bytecode)));
+        try (URLClassLoader loader = new URLClassLoader(new URL[0])) {
+            assertNull(new BlockExitTransformer(loader, new SystemStreamLog())
+                    .transform(null, NoExit.class.getName(), null, null, bytecode));
+        }
+    }
+
+    @Test
+    void classWithExitIsTransformed() throws Exception {
+        byte[] bytecode = bytecode(WithExit.class);
+        assertTrue(BlockExitTransformer.referencesSystemExit(new ClassReader(bytecode)));
+        try (URLClassLoader loader = new URLClassLoader(new URL[0])) {
+            byte[] transformed = new BlockExitTransformer(loader, new SystemStreamLog())
+                    .transform(null, WithExit.class.getName(), null, null, bytecode);
+            assertNotNull(transformed);
+            assertTrue(new String(transformed, StandardCharsets.ISO_8859_1)
+                    .contains(SystemExitManager.class.getName().replace('.', '/')));
+        }
+    }
+
+    @Test
+    void systemPropertiesAccessesAreTransformed() throws Exception {
+        byte[] bytecode = bytecode(WithProperties.class);
+        assertFalse(BlockExitTransformer.referencesSystemExit(new ClassReader(bytecode)));
+        assertTrue(BlockExitTransformer.references(new ClassReader(bytecode), false, true));
+        try (URLClassLoader loader = new URLClassLoader(new URL[0])) {
+            byte[] transformed = new BlockExitTransformer(loader, new SystemStreamLog(), null, false, true)
+                    .transform(null, WithProperties.class.getName(), null, null, bytecode);
+            assertNotNull(transformed);
+            assertTrue(new String(transformed, StandardCharsets.ISO_8859_1)
+                    .contains(SystemPropertiesManager.class.getName().replace('.', '/')));
+            assertNull(new BlockExitTransformer(loader, new SystemStreamLog(), null, true, false)
+                    .transform(null, WithProperties.class.getName(), null, null, bytecode));
+        }
+    }
+
+    @Test
+    void transformedClassIsCached(@TempDir Path cacheDirectory) throws Exception {
+        byte[] bytecode = bytecode(WithExit.class);
+        TransformedClassCache cache =
+                new TransformedClassCache(cacheDirectory, BlockExitTransformer.VERSION, new SystemStreamLog());
+        try (URLClassLoader loader = new URLClassLoader(new URL[0])) {
+            BlockExitTransformer transformer = new BlockExitTransformer(loader, new SystemStreamLog(), cache);
+            byte[] transformed = transformer.transform(null, WithExit.class.getName(), null, null, bytecode);
+            assertArrayEquals(transformed, cache.get(cache.key(bytecode)));
+            assertArrayEquals(transformed, transformer.transform(null, WithExit.class.getName(), null, null, bytecode));
+        }
+    }
+
+    @Test
+    void classDependingOnTheHierarchyIsNotCached(@TempDir Path cacheDirectory) throws Exception {
+        byte[] bytecode = bytecode(WithHierarchy.class);
+        TransformedClassCache cache =
+                new TransformedClassCache(cacheDirectory, BlockExitTransformer.VERSION, new SystemStreamLog());
+        try (URLClassLoader loader = new URLClassLoader(new URL[0])) {
+            BlockExitTransformer transformer = new BlockExitTransformer(loader, new SystemStreamLog(), cache);
+            assertNotNull(transformer.transform(null, WithHierarchy.class.getName(), null, null, bytecode));
+            assertNull(cache.get(cache.key(bytecode)));
+        }
+    }
+
+    private static byte[] bytecode(Class<?> type) throws IOException {
+        try (InputStream stream =
+                type.getResourceAsStream(type.getName().substring(type.getName().lastIndexOf('.') + 1) + ".class")) {
+            return IOUtil.toByteArray(stream);
+        }
+    }
+
+    static class NoExit {
+        void run() {
+            System.out.println("exit");
+            Runtime.getRuntime().gc();
+        }
+    }
+
+    static class WithProperties {
+        int run() {
+            System.setProperty("exec.test", System.getProperty("user.dir"));
+            return Integer.getInteger("exec.test.count", 1);
+        }
+    }
+
+    static class WithHierarchy {
+        List<?> run(boolean array) {
+            // the frame after the condition merges both types
+            List<?> list = array ? new ArrayList<>() : new LinkedList<>();
+            System.exit(list.size());
+            return list;
+        }
+    }
+
+    static class WithExit {
+        void run(int status) {
+            System.exit(status);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.apache.maven.model.FileSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BuildCacheTest {
+
+    @Test
+    void storedThenRestored(@TempDir Path dir) throws IOException {
+        Path cache = dir.resolve("cache");
+        Path project = dir.resolve("project");
+        List<FileSet> outputs = singletonList(fileSet("target/generated"));
+        Files.createDirectories(project.resolve("target/generated/a"));
+        Files.write(project.resolve("target/generated/a/A.java"), singletonList("class A {}"));
+
+        assertFalse(BuildCache.restore(cache, "abc", project.toFile(), outputs));
+        BuildCache.store(cache, "abc", project.toFile(), outputs, Long.MAX_VALUE);
+
+        Files.delete(project.resolve("target/generated/a/A.java")); // mvn clean
+        assertTrue(BuildCache.restore(cache, "abc", project.toFile(), outputs));
+        assertEquals(singletonList("class A {}"), Files.readAllLines(project.resolve("target/generated/a/A.java")));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntries(@TempDir Path dir) throws IOException {
+        Path cache = Files.createDirectories(dir.resolve("cache"));
+        Files.write(cache.resolve("old.zip"), new byte[10]);
+        Files.setLastModifiedTime(cache.resolve("old.zip"), FileTime.fromMillis(1000L));
+        Files.write(cache.resolve("recent.zip"), new byte[10]);
+
+        BuildCache.evict(cache, 15);
+
+        assertFalse(Files.exists(cache.resolve("old.zip")));
+        assertTrue(Files.exists(cache.resolve("recent.zip")));
+    }
+
+    private static FileSet fileSet(String directory) {
+        FileSet fileSet = new FileSet();
+        fileSet.setDirectory(directory);
+        return fileSet;
+    }
+}
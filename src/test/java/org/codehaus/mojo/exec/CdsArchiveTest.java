@@ -0,0 +1,87 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CdsArchiveTest {
+
+    @Test
+    void createdThenUsed(@TempDir Path dir) throws IOException {
+        Path java = jdk(dir, "17.0.2");
+        Path archives = dir.resolve("cds");
+        List<String> classpath = singletonList(Paths.get("target/test-dependencies/slf4j-api.jar")
+                .toAbsolutePath()
+                .toString());
+
+        CdsArchive created = CdsArchive.of(archives, java, classpath, true, new SystemStreamLog());
+        assertNotNull(created);
+        String option = created.jvmArguments().get(0);
+        assertTrue(option.startsWith("-XX:ArchiveClassesAtExit="), option);
+        Files.write(Paths.get(option.substring(option.indexOf('=') + 1)), new byte[] {1}); // what the JVM does
+        created.completed(true);
+
+        CdsArchive used = CdsArchive.of(archives, java, classpath, false, new SystemStreamLog());
+        assertNotNull(used);
+        assertTrue(used.jvmArguments().get(0).startsWith("-XX:SharedArchiveFile="));
+        assertEquals(1, Files.list(archives).count());
+
+        // another classpath, don't reuse the archive
+        assertNull(CdsArchive.of(archives, java, singletonList("other.jar"), false, new SystemStreamLog()));
+    }
+
+    @Test
+    void failedExecutionDropsTheArchive(@TempDir Path dir) throws IOException {
+        Path archives = dir.resolve("cds");
+        CdsArchive created =
+                CdsArchive.of(archives, jdk(dir, "21"), singletonList("a.jar"), true, new SystemStreamLog());
+        String option = created.jvmArguments().get(0);
+        Files.write(Paths.get(option.substring(option.indexOf('=') + 1)), new byte[] {1});
+        created.completed(false);
+        assertEquals(0, Files.list(archives).count());
+    }
+
+    @Test
+    void unsupportedJdk(@TempDir Path dir) throws IOException {
+        assertNull(CdsArchive.of(
+                dir.resolve("cds"), jdk(dir, "11.0.1"), singletonList("a.jar"), true, new SystemStreamLog()));
+        assertEquals(8, CdsArchive.majorVersion("1.8.0_292"));
+    }
+
+    private static Path jdk(Path dir, String version) throws IOException {
+        Path bin = Files.createDirectories(dir.resolve("jdk/bin"));
+        Files.write(dir.resolve("jdk/release"), singletonList("JAVA_VERSION=\"" + version + "\""));
+        return Files.write(bin.resolve("java"), new byte[0]);
+    }
+}
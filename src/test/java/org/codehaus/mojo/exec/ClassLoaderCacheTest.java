@@ -0,0 +1,128 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.net.URLClassLoader;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ClassLoaderCacheTest {
+    private static final String LOGGER_FACTORY = "org/slf4j/LoggerFactory.class";
+
+    @Test
+    void reuseSameConfiguration() throws Exception {
+        ClassLoaderCache cache = new ClassLoaderCache();
+        URLClassLoader first = cache.acquire(builder(), 2);
+        cache.release(first);
+        URLClassLoader second = cache.acquire(builder(), 2);
+        try {
+            assertSame(first, second);
+            assertNotNull(second.findResource(LOGGER_FACTORY));
+        } finally {
+            cache.release(second);
+        }
+    }
+
+    @Test
+    void differentConfiguration() throws Exception {
+        ClassLoaderCache cache = new ClassLoaderCache();
+        URLClassLoader first = cache.acquire(builder(), 2);
+        URLClassLoader second = cache.acquire(builder().setExclusions(singletonList("slf4j-jdk14.jar")), 2);
+        try {
+            assertNotSame(first, second);
+        } finally {
+            cache.release(first);
+            cache.release(second);
+        }
+    }
+
+    @Test
+    void evictedLoaderClosedOnceReleased() throws Exception {
+        ClassLoaderCache cache = new ClassLoaderCache();
+        URLClassLoader first = cache.acquire(builder(), 1);
+        URLClassLoader second = cache.acquire(builder().withTransformers(true), 1);
+
+        // evicted but still in use
+        assertNotNull(first.findResource(LOGGER_FACTORY));
+        cache.release(first);
+        assertNull(first.findResource(LOGGER_FACTORY));
+
+        // still cached
+        cache.release(second);
+        assertNotNull(second.findResource(LOGGER_FACTORY));
+    }
+
+    @Test
+    void concurrentExecutionGetsItsOwnLoader() throws Exception {
+        ClassLoaderCache cache = new ClassLoaderCache();
+        URLClassLoader first = cache.acquire(builder(), 2);
+        URLClassLoader second = cache.acquire(builder(), 2);
+        assertNotSame(first, second);
+
+        // not cached: closed once released
+        cache.release(second);
+        assertNull(second.findResource(LOGGER_FACTORY));
+
+        cache.release(first);
+        URLClassLoader third = cache.acquire(builder(), 2);
+        try {
+            assertSame(first, third);
+        } finally {
+            cache.release(third);
+        }
+    }
+
+    @Test
+    void closeEvictsTheLoaders() throws Exception {
+        ClassLoaderCache cache = new ClassLoaderCache();
+        URLClassLoader idle = cache.acquire(builder(), 2);
+        cache.release(idle);
+        URLClassLoader used = cache.acquire(builder().withTransformers(true), 2);
+
+        cache.close();
+        assertNull(idle.findResource(LOGGER_FACTORY));
+        assertNotNull(used.findResource(LOGGER_FACTORY));
+        cache.release(used);
+        assertNull(used.findResource(LOGGER_FACTORY));
+
+        // still usable
+        URLClassLoader next = cache.acquire(builder(), 2);
+        try {
+            assertNotSame(idle, next);
+        } finally {
+            cache.release(next);
+        }
+    }
+
+    private static URLClassLoaderBuilder builder() {
+        return URLClassLoaderBuilder.builder()
+                .setPaths(asList(
+                        Paths.get("target/test-dependencies/slf4j-api.jar"),
+                        Paths.get("target/test-dependencies/slf4j-jdk14.jar")));
+    }
+}
@@ -0,0 +1,78 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassPreloaderTest {
+
+    @Test
+    void preloadPackage() throws Exception {
+        try (URLClassLoader loader = URLClassLoaderBuilder.builder()
+                .setPaths(asList(Paths.get("target/test-dependencies/slf4j-api.jar")))
+                .build()) {
+            Collection<String> names =
+                    ClassPreloader.classNames(loader, singletonList("org.slf4j.helpers.*"), new SystemStreamLog());
+            assertTrue(names.contains("org.slf4j.helpers.MessageFormatter"));
+            assertFalse(names.contains("org.slf4j.LoggerFactory"));
+            assertEquals(
+                    names.size(),
+                    ClassPreloader.preload(loader, singletonList("org.slf4j.helpers"), 4, new SystemStreamLog()));
+        }
+    }
+
+    @Test
+    void preloadClassList(@TempDir Path dir) throws Exception {
+        Path classList = dir.resolve("classes.lst");
+        Files.write(
+                classList,
+                asList(
+                        "# NOTE: Do NOT modify this file.",
+                        "org/slf4j/LoggerFactory id: 1",
+                        "org.slf4j.Logger",
+                        "org/acme/Missing",
+                        "@lambda-proxy org/slf4j/LoggerFactory run ()V"),
+                StandardCharsets.UTF_8);
+        try (URLClassLoader loader = URLClassLoaderBuilder.builder()
+                .setPaths(asList(Paths.get("target/test-dependencies/slf4j-api.jar")))
+                .build()) {
+            assertEquals(
+                    asList("org.slf4j.LoggerFactory", "org.slf4j.Logger", "org.acme.Missing"),
+                    ClassPreloader.classNames(loader, singletonList(classList.toString()), new SystemStreamLog()));
+            assertEquals(
+                    2, ClassPreloader.preload(loader, singletonList(classList.toString()), 2, new SystemStreamLog()));
+        }
+    }
+}
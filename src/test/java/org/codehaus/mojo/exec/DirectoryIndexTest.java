@@ -0,0 +1,109 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirectoryIndexTest {
+
+    @Test
+    void followsTheChangesOfTheDirectories(@TempDir Path dir) throws IOException {
+        File bin = Files.createDirectories(dir.resolve("bin")).toFile();
+        File other = Files.createDirectories(dir.resolve("other")).toFile();
+        Files.createFile(bin.toPath().resolve("tool"));
+        Files.createFile(other.toPath().resolve("tool"));
+        Files.createDirectories(bin.toPath().resolve("folder"));
+        // old enough to be indexed
+        assertTrue(bin.setLastModified(System.currentTimeMillis() - 60_000L));
+        assertTrue(other.setLastModified(System.currentTimeMillis() - 60_000L));
+
+        DirectoryIndex index = new DirectoryIndex();
+        String missing = new File(dir.toFile(), "missing").getPath();
+        assertEquals(
+                new File(bin, "tool").getAbsolutePath(),
+                index.find("tool", asList(missing, bin.getPath(), other.getPath()), singletonList("")));
+        assertNull(index.find("folder", singletonList(bin.getPath()), singletonList("")));
+        assertNull(index.find("new", singletonList(bin.getPath()), singletonList("")));
+        assertEquals(
+                new File(bin, "tool").getAbsolutePath(),
+                index.find("tool", singletonList(bin.getPath()), asList(".cmd", "")));
+
+        // a new executable changes the modification time of the directory
+        Files.createFile(bin.toPath().resolve("new"));
+        assertTrue(bin.setLastModified(System.currentTimeMillis() - 30_000L));
+        assertEquals(
+                new File(bin, "new").getAbsolutePath(),
+                index.find("new", singletonList(bin.getPath()), singletonList("")));
+
+        // a memoized resolution is only reused while the file exists
+        Files.delete(bin.toPath().resolve("tool"));
+        assertEquals(
+                new File(other, "tool").getAbsolutePath(),
+                index.find("tool", asList(missing, bin.getPath(), other.getPath()), singletonList("")));
+    }
+
+    @Test
+    void findsAnExecutableAddedToAnEarlierDirectory(@TempDir Path dir) throws IOException {
+        File first = Files.createDirectories(dir.resolve("first")).toFile();
+        File second = Files.createDirectories(dir.resolve("second")).toFile();
+        Files.createFile(second.toPath().resolve("tool"));
+        assertTrue(first.setLastModified(System.currentTimeMillis() - 60_000L));
+        assertTrue(second.setLastModified(System.currentTimeMillis() - 60_000L));
+
+        DirectoryIndex index = new DirectoryIndex();
+        List<String> path = asList(first.getPath(), second.getPath());
+        assertEquals(new File(second, "tool").getAbsolutePath(), index.find("tool", path, singletonList("")));
+
+        Files.createFile(first.toPath().resolve("tool"));
+        assertTrue(first.setLastModified(System.currentTimeMillis() - 30_000L));
+        assertEquals(new File(first, "tool").getAbsolutePath(), index.find("tool", path, singletonList("")));
+    }
+
+    @Test
+    void memoizesResolutions(@TempDir Path dir) throws IOException {
+        String tool = Files.createFile(dir.resolve("tool")).toString();
+        AtomicInteger resolutions = new AtomicInteger();
+        DirectoryIndex index = new DirectoryIndex();
+
+        assertEquals(tool, index.resolve(singletonList("tool"), () -> {
+            resolutions.incrementAndGet();
+            return tool;
+        }));
+        assertEquals(tool, index.resolve(singletonList("tool"), () -> {
+            resolutions.incrementAndGet();
+            return tool;
+        }));
+        assertEquals(1, resolutions.get());
+    }
+}
@@ -0,0 +1,77 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EnvironmentScriptCacheTest {
+
+    @Test
+    void keyChangesWithTheScriptAndTheEnvironments(@TempDir Path dir) throws IOException {
+        File script =
+                Files.write(dir.resolve("env.sh"), singletonList("export A=1")).toFile();
+        String key = EnvironmentScriptCache.key(script, emptyMap(), emptyMap());
+
+        assertEquals(key, EnvironmentScriptCache.key(script, emptyMap(), emptyMap()));
+        assertNotEquals(key, EnvironmentScriptCache.key(script, singletonMap("B", "2"), emptyMap()));
+        assertNotEquals(key, EnvironmentScriptCache.key(script, emptyMap(), singletonMap("PATH", "/bin")));
+
+        Files.write(script.toPath(), singletonList("export A=2"));
+        assertNotEquals(key, EnvironmentScriptCache.key(script, emptyMap(), emptyMap()));
+    }
+
+    @Test
+    void persistedAcrossSessions(@TempDir Path dir) throws IOException {
+        Map<String, String> environment = new HashMap<>();
+        environment.put("SDK_HOME", "/opt/sdk=1");
+        environment.put("CI_TOKEN", "secret");
+        environment.put("EMPTY", null);
+
+        Map<String, String> changes = new HashMap<>();
+        changes.put("SDK_HOME", "/opt/sdk=1");
+        changes.put("EMPTY", "");
+        assertEquals(
+                changes, new EnvironmentScriptCache().put("abc", environment, singletonMap("CI_TOKEN", "secret"), dir));
+
+        EnvironmentScriptCache nextBuild = new EnvironmentScriptCache();
+        assertEquals(changes, nextBuild.get("abc", dir));
+        assertFalse(new String(Files.readAllBytes(dir.resolve("abc.properties")), StandardCharsets.ISO_8859_1)
+                .contains("secret"));
+        assertNull(nextBuild.get("def", dir));
+        assertNull(new EnvironmentScriptCache().get("abc", null));
+    }
+}
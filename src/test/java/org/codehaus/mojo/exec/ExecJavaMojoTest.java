@@ -159,6 +159,34 @@ class ExecJavaMojoTest {
         assertEquals("Correct choice arg1 arg2" + System.lineSeparator(), output);
     }
 
+    @Test
+    @InjectMojo(goal = "java")
+    @MojoParameter(name = "mainClass", value = "org.codehaus.mojo.exec.DummyMain")
+    @MojoParameter(name = "isolationMode", value = "none")
+    void runOnTheCallingThread(ExecJavaMojo mojo) throws Exception {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        String output = execute(mojo);
+        assertEquals("Hello" + System.lineSeparator(), output);
+        assertEquals(contextClassLoader, Thread.currentThread().getContextClassLoader());
+    }
+
+    @Test
+    @InjectMojo(goal = "java")
+    @MojoParameter(name = "mainClass", value = "org.codehaus.mojo.exec.ThrowingMain")
+    @MojoParameter(name = "isolationMode", value = "none")
+    void runOnTheCallingThreadReportsFailures(ExecJavaMojo mojo) {
+        MojoExecutionException exception = assertThrows(MojoExecutionException.class, () -> execute(mojo));
+        assertInstanceOf(IOException.class, exception.getCause());
+    }
+
+    @Test
+    @InjectMojo(goal = "java")
+    @MojoParameter(name = "mainClass", value = "org.codehaus.mojo.exec.DummyMain")
+    @MojoParameter(name = "isolationMode", value = "process")
+    void invalidIsolationMode(ExecJavaMojo mojo) {
+        assertThrows(MojoExecutionException.class, () -> execute(mojo));
+    }
+
     /**
      * MEXEC-10 Check that an execution with no arguments and an system property with no value produces the expected
      * result<br>
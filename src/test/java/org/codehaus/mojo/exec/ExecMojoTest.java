@@ -28,6 +28,7 @@ import java.util.UUID;
 import org.apache.commons.exec.CommandLine;
 import org.apache.commons.exec.ExecuteException;
 import org.apache.commons.exec.Executor;
+import org.apache.commons.exec.PumpStreamHandler;
 import org.apache.maven.api.di.Provides;
 import org.apache.maven.api.plugin.testing.InjectMojo;
 import org.apache.maven.api.plugin.testing.MojoTest;
@@ -92,10 +93,17 @@ class ExecMojoTest {
 
     private MockExecMojo mojo;
 
+    private static Command command(String executable, String argument) {
+        Command command = new Command();
+        command.setExecutable(executable);
+        command.setArguments(Collections.singletonList(argument));
+        return command;
+    }
+
     static class MockExecMojo extends ExecMojo {
         public int executeResult;
 
-        public List<CommandLine> commandLines = new ArrayList<>();
+        public List<CommandLine> commandLines = Collections.synchronizedList(new ArrayList<>());
 
         public String failureMsg;
 
@@ -115,6 +123,11 @@ class ExecMojoTest {
             return executeResult;
         }
 
+        protected int executeCommandLine(Executor exec, CommandLine commandLine, Map enviro, PumpStreamHandler psh)
+                throws ExecuteException {
+            return executeCommandLine(exec, commandLine, enviro, null, null);
+        }
+
         protected String getSystemProperty(String key) {
             return systemProperties.get(key);
         }
@@ -146,6 +159,36 @@ class ExecMojoTest {
         checkMojo(SOME_EXECUTABLE + " --version");
     }
 
+    @Test
+    void runCommands() throws Exception {
+        mojo.setCommands(Arrays.asList(command("first", "--a"), command("second", "--b")));
+
+        mojo.execute();
+
+        assertEquals(2, mojo.getAmountExecutedCommandLines());
+        List<String> executed = new ArrayList<>();
+        for (CommandLine commandLine : mojo.commandLines) {
+            executed.add(getCommandLineAsString(commandLine));
+        }
+        Collections.sort(executed);
+        assertEquals(Arrays.asList("first --a", "second --b"), executed);
+    }
+
+    @Test
+    void runCommandsCollectsAllFailures() throws Exception {
+        setVariableValueToObject(mojo, "failFast", false);
+        mojo.setCommands(Arrays.asList(command("first", "--a"), command("second", "--b")));
+        mojo.executeResult = 1;
+
+        try {
+            mojo.execute();
+            fail("expected failure");
+        } catch (MojoExecutionException e) {
+            assertTrue(e.getMessage().startsWith("2 command(s) failed"), e.getMessage());
+        }
+        assertEquals(2, mojo.getAmountExecutedCommandLines());
+    }
+
     /*
      * This one won't work yet public void xxtestSimpleRunPropertiesAndArguments() throws MojoExecutionException,
      * Exception { File pom = new File( getBasedir(), "src/test/projects/project1/pom.xml" ); String output = execute(
@@ -0,0 +1,126 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.model.FileSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FingerprintTest {
+
+    @Test
+    void changesWithInputsAndValues(@TempDir Path dir) throws IOException {
+        Files.createDirectories(dir.resolve("src"));
+        Files.write(dir.resolve("src/api.proto"), singletonList("message A {}"));
+        Files.write(dir.resolve("src/notes.txt"), singletonList("ignored"));
+        List<FileSet> inputs = singletonList(fileSet("src", "**/*.proto"));
+
+        String fingerprint = Fingerprint.of(dir.toFile(), inputs, singletonList("--java_out=target"));
+        assertEquals(fingerprint, Fingerprint.of(dir.toFile(), inputs, singletonList("--java_out=target")));
+
+        Files.write(dir.resolve("src/notes.txt"), singletonList("still ignored"));
+        assertEquals(fingerprint, Fingerprint.of(dir.toFile(), inputs, singletonList("--java_out=target")));
+
+        assertNotEquals(fingerprint, Fingerprint.of(dir.toFile(), inputs, singletonList("--java_out=other")));
+
+        Files.write(dir.resolve("src/api.proto"), singletonList("message B {}"));
+        assertNotEquals(fingerprint, Fingerprint.of(dir.toFile(), inputs, singletonList("--java_out=target")));
+    }
+
+    @Test
+    void changesWithTheClassesOfAClasspathDirectory(@TempDir Path dir) throws IOException {
+        Path classes = dir.resolve("classes");
+        Files.createDirectories(classes.resolve("org/acme"));
+        Path main = classes.resolve("org/acme/Main.class");
+        Files.write(main, singletonList("v1"));
+
+        List<Object> values = new ArrayList<>();
+        Fingerprint.addClasspathElement(values, classes.toString());
+        String fingerprint = Fingerprint.of(dir.toFile(), emptyList(), values);
+
+        Files.write(main, singletonList("v2"));
+        Files.setLastModifiedTime(main, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        List<Object> recompiled = new ArrayList<>();
+        Fingerprint.addClasspathElement(recompiled, classes.toString());
+        assertNotEquals(fingerprint, Fingerprint.of(dir.toFile(), emptyList(), recompiled));
+    }
+
+    @Test
+    void buildCacheKeyChangesWithTheContentOfTheClasspathAndTheOutputs(@TempDir Path dir) throws IOException {
+        Path classes = dir.resolve("classes");
+        Files.createDirectories(classes);
+        Path generator = classes.resolve("Generator.class");
+        Files.write(generator, singletonList("v1"));
+        List<Path> classpath = singletonList(classes);
+        List<FileSet> outputs = singletonList(fileSet("generated", "**/*.java"));
+
+        String key = Fingerprint.buildCacheKey("abc", dir.toFile(), outputs, classpath);
+        Files.setLastModifiedTime(generator, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        assertEquals(key, Fingerprint.buildCacheKey("abc", dir.toFile(), outputs, classpath));
+
+        assertNotEquals(
+                key,
+                Fingerprint.buildCacheKey(
+                        "abc", dir.toFile(), singletonList(fileSet("generated", "**/*.kt")), classpath));
+
+        Files.write(generator, singletonList("v2"));
+        assertNotEquals(key, Fingerprint.buildCacheKey("abc", dir.toFile(), outputs, classpath));
+    }
+
+    @Test
+    void storedAndMatched(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("fingerprints/exec-default");
+        assertFalse(Fingerprint.matches(file, "abc"));
+        Fingerprint.store(file, "abc");
+        assertTrue(Fingerprint.matches(file, "abc"));
+        assertFalse(Fingerprint.matches(file, "def"));
+    }
+
+    @Test
+    void outputsExist(@TempDir Path dir) throws IOException {
+        List<FileSet> outputs = singletonList(fileSet("generated", "**/*.java"));
+        assertFalse(Fingerprint.outputsExist(dir.toFile(), outputs));
+        Files.createDirectories(dir.resolve("generated/a"));
+        assertFalse(Fingerprint.outputsExist(dir.toFile(), outputs));
+        Files.write(dir.resolve("generated/a/A.java"), singletonList("class A {}"));
+        assertTrue(Fingerprint.outputsExist(dir.toFile(), outputs));
+    }
+
+    private static FileSet fileSet(String directory, String include) {
+        FileSet fileSet = new FileSet();
+        fileSet.setDirectory(directory);
+        fileSet.addInclude(include);
+        return fileSet;
+    }
+}
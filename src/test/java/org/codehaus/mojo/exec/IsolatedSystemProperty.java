@@ -0,0 +1,17 @@
+package org.codehaus.mojo.exec;
+
+/**
+ * Simple class modifying a system property, used to test the isolation of the system properties.
+ */
+public class IsolatedSystemProperty {
+    /**
+     * @param key the property to modify
+     * @param value the new value of the property
+     * @return the previous value of the property
+     */
+    public static String swap(String key, String value) {
+        String previous = System.getProperty(key);
+        System.setProperty(key, value);
+        return previous;
+    }
+}
@@ -0,0 +1,141 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JavaWorkersTest {
+
+    @Test
+    void parsesClasspathInvocations() {
+        JavaWorkers.Invocation invocation = JavaWorkers.parse(Arrays.asList(
+                "-Xmx64m",
+                "--add-opens",
+                "java.base/java.lang=ALL-UNNAMED",
+                "-cp",
+                "a.jar" + File.pathSeparator + "b",
+                "com.example.Main",
+                "-cp",
+                "arg"));
+
+        assertEquals(
+                Arrays.asList("-Xmx64m", "--add-opens", "java.base/java.lang=ALL-UNNAMED"), invocation.getJvmOptions());
+        assertEquals(Arrays.asList("a.jar", "b"), invocation.getClasspath());
+        assertEquals("com.example.Main", invocation.getMainClass());
+        assertEquals(Arrays.asList("-cp", "arg"), invocation.getArguments());
+    }
+
+    @Test
+    void rejectsOtherInvocations() {
+        assertNull(JavaWorkers.parse(Arrays.asList("-jar", "app.jar")));
+        assertNull(JavaWorkers.parse(Arrays.asList("-p", "mods", "-m", "app/com.example.Main")));
+        assertNull(JavaWorkers.parse(Arrays.asList("@args")));
+        assertNull(JavaWorkers.parse(Collections.singletonList("com.example.Main")));
+        assertNull(JavaWorkers.parse(Arrays.asList("-cp", "a.jar")));
+    }
+
+    @Test
+    void runsMainsInAWorker() throws IOException, URISyntaxException {
+        String classpath = testClasses();
+
+        assertEquals("Hello\nworker\n", run(classpath, "-Dtest.name=worker", DummyMain.class.getName(), "worker"));
+        assertEquals("Hello worker\n", run(classpath, "-Dtest.name=worker", HelloSystemProperty.class.getName()));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        Integer exitCode = JavaWorkers.execute(
+                java(),
+                new File("."),
+                System.getenv(),
+                JavaWorkers.parse(Arrays.asList("-cp", classpath, ThrowingMain.class.getName())),
+                60,
+                out,
+                err);
+        assertEquals(1, exitCode.intValue());
+        assertTrue(
+                new String(err.toByteArray(), StandardCharsets.UTF_8).contains("expected IOException thrown by test"));
+    }
+
+    @Test
+    void resetsOrDiscardsTheWorkers() throws IOException, URISyntaxException {
+        String classpath = testClasses();
+        String main = WorkerStateMain.class.getName();
+
+        String initial = run(classpath, "-Dtest.name=state", main, "locale");
+        // same JVM, the default locale was reset
+        assertEquals(initial, run(classpath, "-Dtest.name=state", main, "daemon"));
+        // the daemon thread left by the program discarded the worker
+        assertNotEquals(
+                initial.split(" ")[0], run(classpath, "-Dtest.name=state", main).split(" ")[0]);
+    }
+
+    @Test
+    void leavesTheUnsupportedMainsToANewJvm() throws IOException, URISyntaxException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertNull(JavaWorkers.execute(
+                java(),
+                new File("."),
+                System.getenv(),
+                JavaWorkers.parse(Arrays.asList("-cp", testClasses(), JSR512DummyMain1.class.getName())),
+                60,
+                out,
+                System.err));
+        assertEquals(0, out.size());
+    }
+
+    private static String testClasses() throws URISyntaxException {
+        return new File(DummyMain.class
+                        .getProtectionDomain()
+                        .getCodeSource()
+                        .getLocation()
+                        .toURI())
+                .getAbsolutePath();
+    }
+
+    private static String run(String classpath, String jvmOption, String mainClass, String... arguments)
+            throws IOException {
+        List<String> command = new ArrayList<>(Arrays.asList(jvmOption, "-cp", classpath, mainClass));
+        command.addAll(Arrays.asList(arguments));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Integer exitCode = JavaWorkers.execute(
+                java(), new File("."), System.getenv(), JavaWorkers.parse(command), 60, out, System.err);
+        assertEquals(0, exitCode.intValue());
+        return new String(out.toByteArray(), StandardCharsets.UTF_8).replace(System.lineSeparator(), "\n");
+    }
+
+    private static String java() {
+        return new File(System.getProperty("java.home"), "bin/java").getAbsolutePath();
+    }
+}
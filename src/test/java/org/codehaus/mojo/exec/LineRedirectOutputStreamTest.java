@@ -3,6 +3,9 @@ package org.codehaus.mojo.exec;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Function;
 
 import org.junit.jupiter.api.Test;
@@ -55,6 +58,22 @@ class LineRedirectOutputStreamTest {
         assertThrows(NullPointerException.class, () -> new LineRedirectOutputStream(null, Charset.defaultCharset()));
     }
 
+    @Test
+    void givenLinesSplitAcrossWrites_whenRedirecting_thenShouldPrintWholeLines() throws Exception {
+        List<String> lines = new ArrayList<>();
+        byte[] bytes = "first 你好\nsecond\n\nthi".getBytes(StandardCharsets.UTF_8);
+        try (LineRedirectOutputStream os = new LineRedirectOutputStream(lines::add, StandardCharsets.UTF_8)) {
+            os.write(bytes, 0, 8); // ends in the middle of a multibyte character
+            os.write(bytes, 8, bytes.length - 8);
+            os.write('r');
+            os.write('d');
+            os.write('\n');
+            os.write(new byte[1000], 0, 1000);
+        }
+
+        assertEquals(Arrays.asList("first 你好", "second", "", "third", new String(new byte[1000])), lines);
+    }
+
     private void internalTestForCharset(Charset charset) throws IOException {
         internalTestForCharset(sb -> new LineRedirectOutputStream(sb::append, charset), charset);
     }
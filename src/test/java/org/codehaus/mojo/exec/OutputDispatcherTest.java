@@ -0,0 +1,78 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class OutputDispatcherTest {
+
+    @Test
+    void linesOfConcurrentExecutionsAreKeptTogether() throws Exception {
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream capture = new PrintStream(out, true, "UTF-8");
+        System.setOut(capture);
+        try (URLClassLoader first = new URLClassLoader(new URL[0]);
+                URLClassLoader second = new URLClassLoader(new URL[0])) {
+            Closeable firstRegistration = OutputDispatcher.register(first, "[first] ");
+            Closeable secondRegistration = OutputDispatcher.register(second, "[second] ");
+
+            Thread firstThread = new Thread(() -> {
+                System.out.print("hello ");
+                System.out.println("from first");
+            });
+            firstThread.setContextClassLoader(first);
+            Thread secondThread = new Thread(() -> {
+                System.out.print("hello ");
+                System.out.print("from second");
+            });
+            secondThread.setContextClassLoader(second);
+            firstThread.start();
+            secondThread.start();
+            firstThread.join();
+            secondThread.join();
+            System.out.println("maven");
+
+            firstRegistration.close();
+            secondRegistration.close(); // flushes the last partial line
+            assertSame(capture, System.out);
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        List<String> lines = Arrays.asList(new String(out.toByteArray(), StandardCharsets.UTF_8)
+                .replace(System.lineSeparator(), "\n")
+                .split("\n"));
+        lines.sort(null);
+        assertEquals(Arrays.asList("[first] hello from first", "[second] hello from second", "maven"), lines);
+    }
+}
@@ -0,0 +1,63 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackagePrefixTrieTest {
+
+    @Test
+    void includedPrefixes() {
+        PackagePrefixTrie trie = new PackagePrefixTrie(asList("java.", "javax.xml.", "com.sun.nio."), null);
+        assertTrue(trie.matches("java.lang.String"));
+        assertTrue(trie.matches("javax.xml.parsers.SAXParser"));
+        assertTrue(trie.matches("com.sun.nio.file.ExtendedOpenOption"));
+        assertFalse(trie.matches("javax.resource.Referenceable"));
+        assertFalse(trie.matches("com.sun.faces.Foo"));
+        assertFalse(trie.matches("java"));
+        assertFalse(trie.matches(""));
+    }
+
+    @Test
+    void excludedPrefixesWin() {
+        PackagePrefixTrie trie =
+                new PackagePrefixTrie(asList("java.", "javax.xml."), asList("javax.xml.bind", "java."));
+        assertFalse(trie.matches("java.lang.String"));
+        assertFalse(trie.matches("javax.xml.bind.JAXB"));
+        assertTrue(trie.matches("javax.xml.parsers.SAXParser"));
+    }
+
+    @Test
+    void excludedShorterThanIncluded() {
+        PackagePrefixTrie trie = new PackagePrefixTrie(singletonList("org.acme.impl."), singletonList("org."));
+        assertFalse(trie.matches("org.acme.impl.Foo"));
+    }
+
+    @Test
+    void emptyPrefixes() {
+        assertTrue(new PackagePrefixTrie(singletonList(""), null).matches("any.Thing"));
+        assertFalse(new PackagePrefixTrie(singletonList("java."), singletonList("")).matches("java.lang.String"));
+    }
+}
@@ -0,0 +1,76 @@
+package org.codehaus.mojo.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class RollingFileOutputStreamTest {
+
+    @Test
+    void rollsAndKeepsTheLastSegments(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("out.log");
+        try (RollingFileOutputStream out = new RollingFileOutputStream(file.toFile(), 4, 2, false)) {
+            for (String chunk : new String[] {"aa", "bb", "cc", "dd", "ee", "ff", "g"}) {
+                out.write(chunk.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        assertEquals("g", read(file));
+        assertEquals("eeff", read(dir.resolve("out.log.1")));
+        assertEquals("ccdd", read(dir.resolve("out.log.2")));
+        assertFalse(Files.exists(dir.resolve("out.log.3")));
+    }
+
+    @Test
+    void compressesRolledSegments(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("out.log");
+        try (RollingFileOutputStream out = new RollingFileOutputStream(file.toFile(), 4, 1, true)) {
+            out.write("abcd".getBytes(StandardCharsets.UTF_8));
+            out.write('e');
+        }
+
+        assertEquals("e", read(file));
+        ByteArrayOutputStream rolled = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(dir.resolve("out.log.1.gz")))) {
+            byte[] buffer = new byte[64];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                rolled.write(buffer, 0, read);
+            }
+        }
+        assertEquals("abcd", new String(rolled.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
@@ -21,14 +21,30 @@ package org.codehaus.mojo.exec;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Basic tests about the custom classloader we set to execute the project.
@@ -58,4 +74,119 @@ class URLClassLoaderBuilderTest {
         assertEquals("", new String(stderr.toByteArray(), StandardCharsets.UTF_8));
         System.setErr(originalStderr);
     }
+
+    @Test
+    void missingClassLookupIsCached() throws Exception {
+        try (URLClassLoader loader = URLClassLoaderBuilder.builder()
+                .setPaths(asList(Paths.get("target/test-dependencies/slf4j-api.jar")))
+                .build()) {
+            ClassNotFoundException first =
+                    assertThrows(ClassNotFoundException.class, () -> loader.loadClass("org.acme.Missing"));
+            assertEquals("org.acme.Missing", first.getMessage());
+            ClassNotFoundException second =
+                    assertThrows(ClassNotFoundException.class, () -> loader.loadClass("org.acme.Missing"));
+            assertEquals("org.acme.Missing", second.getMessage());
+            assertEquals(0, second.getStackTrace().length);
+            assertEquals(
+                    "org.slf4j.LoggerFactory",
+                    loader.loadClass("org.slf4j.LoggerFactory").getName());
+        }
+    }
+
+    @Test
+    void resourcesOfTheJvmAndOfTheClasspathOnly() throws Exception {
+        try (URLClassLoader loader = URLClassLoaderBuilder.builder()
+                .setPaths(asList(Paths.get("target/test-dependencies/slf4j-api.jar")))
+                .build()) {
+            List<URL> manifests = Collections.list(loader.getResources("META-INF/MANIFEST.MF"));
+            assertEquals(1, manifests.size()); // the test classpath jars are filtered
+            assertTrue(manifests.get(0).toString().contains("slf4j-api.jar"));
+            assertEquals(manifests, Collections.list(loader.getResources("META-INF/MANIFEST.MF")));
+            assertFalse(
+                    loader.getResources("META-INF/services/org.acme.Missing").hasMoreElements());
+        }
+    }
+
+    @Test
+    void isolatedSystemProperties() throws Exception {
+        try (URLClassLoader first = isolatedSystemPropertiesLoader();
+                URLClassLoader second = isolatedSystemPropertiesLoader()) {
+            assertNull(swap(first, "first"));
+            assertNull(swap(second, "second"));
+            assertEquals("first", swap(first, "again"));
+            assertEquals("second", swap(second, "again"));
+            assertNull(System.getProperty("exec.isolated"));
+        }
+    }
+
+    private static URLClassLoader isolatedSystemPropertiesLoader() throws Exception {
+        URLClassLoader loader = URLClassLoaderBuilder.builder()
+                .setPaths(asList(Paths.get("target/test-classes")))
+                .withIsolatedSystemProperties(true)
+                .build();
+        loader.loadClass(SystemPropertiesManager.class.getName())
+                .getMethod("setProperties", Properties.class)
+                .invoke(null, new Properties());
+        return loader;
+    }
+
+    private static Object swap(URLClassLoader loader, String value) throws Exception {
+        Class<?> type = loader.loadClass(IsolatedSystemProperty.class.getName());
+        assertEquals(loader, type.getClassLoader());
+        return type.getMethod("swap", String.class, String.class).invoke(null, "exec.isolated", value);
+    }
+
+    @Test
+    void indexedClasspath(@TempDir Path cache) throws Exception {
+        for (int run = 0; run < 2; run++) { // second run reads the persisted index
+            try (URLClassLoader loader = URLClassLoaderBuilder.builder()
+                    .setPaths(asList(
+                            Paths.get("target/test-dependencies/slf4j-api.jar"),
+                            Paths.get("target/test-dependencies/slf4j-jdk14.jar")))
+                    .withClasspathIndex(true)
+                    .setClasspathIndexCache(cache)
+                    .build()) {
+                Class<?> binder = loader.loadClass("org.slf4j.impl.StaticLoggerBinder");
+                assertEquals(loader, binder.getClassLoader());
+                assertTrue(binder.getProtectionDomain()
+                        .getCodeSource()
+                        .getLocation()
+                        .toString()
+                        .endsWith("slf4j-jdk14.jar"));
+                assertNotNull(loader.getResource("org/slf4j/LoggerFactory.class"));
+                // the package is defined from the manifest of its jar
+                assertNotNull(
+                        loader.loadClass("org.slf4j.LoggerFactory").getPackage().getImplementationVersion());
+                assertNull(loader.getResource("org/acme/missing.txt"));
+                assertEquals(
+                        2,
+                        Collections.list(loader.getResources("META-INF/MANIFEST.MF"))
+                                .size());
+                assertThrows(ClassNotFoundException.class, () -> loader.loadClass("org.acme.Missing"));
+            }
+        }
+    }
+
+    @Test
+    void indexedClasspathFollowsTheManifestClassPath(@TempDir Path dir) throws Exception {
+        Files.createDirectories(dir.resolve("lib"));
+        Files.copy(Paths.get("target/test-dependencies/slf4j-api.jar"), dir.resolve("lib/slf4j-api.jar"));
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, "lib/slf4j-api.jar");
+        Path launcher = dir.resolve("launcher.jar");
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(launcher), manifest)) {
+            jar.putNextEntry(new JarEntry("org/acme/launcher.txt"));
+            jar.closeEntry();
+        }
+
+        try (URLClassLoader loader = URLClassLoaderBuilder.builder()
+                .setPaths(Collections.singletonList(launcher))
+                .withClasspathIndex(true)
+                .build()) {
+            assertEquals(loader, loader.loadClass("org.slf4j.LoggerFactory").getClassLoader());
+            assertNotNull(loader.getResource("org/slf4j/LoggerFactory.class"));
+            assertNotNull(loader.getResource("org/acme/launcher.txt"));
+        }
+    }
 }
@@ -0,0 +1,33 @@
+package org.codehaus.mojo.exec;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Simple class with a main method printing its JVM and default locale, then modifying the state of the JVM
+ */
+public class WorkerStateMain {
+    /**
+     * Print on stdout the name of the JVM and the default locale.
+     *
+     * @param args {@code locale} to change the default locale, {@code daemon} to leave a daemon thread running
+     */
+    public static void main(String... args) {
+        System.out.println(ManagementFactory.getRuntimeMXBean().getName() + " " + Locale.getDefault());
+        if (Arrays.asList(args).contains("locale")) {
+            Locale.setDefault(Locale.JAPAN.equals(Locale.getDefault()) ? Locale.KOREA : Locale.JAPAN);
+        }
+        if (Arrays.asList(args).contains("daemon")) {
+            Thread thread = new Thread(() -> {
+                try {
+                    Thread.sleep(60000);
+                } catch (InterruptedException e) {
+                    // the worker exits
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+}